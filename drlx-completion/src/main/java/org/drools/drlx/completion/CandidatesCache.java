@@ -0,0 +1,179 @@
+package org.drools.drlx.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.vmware.antlr4c3.CodeCompletionCore;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.drools.drlx.completion.document.CompactTokenBuffer;
+import org.drools.drlx.completion.document.CompactTokenStream;
+import org.drools.drlx.parser.DrlxParser;
+
+/**
+ * Memoizes antlr4-c3 candidate collection.
+ *
+ * <p>{@code collectCandidates} walks the ATN from the start rule over every token
+ * before the caret, and its result depends on nothing but the types of those
+ * tokens: the text of identifiers and literals, and hidden-channel tokens, never
+ * matter. Entries are therefore keyed by the type sequence of the default-channel
+ * tokens before the caret — with windowed completion (see
+ * {@link org.drools.drlx.completion.document.CompletionWindow}) the header plus
+ * the enclosing rule up to the caret. Typing an identifier, or asking again at the
+ * same place, comes out of the cache. When collection starts at an enclosing
+ * context, the key only covers the tokens from its start, prefixed by its rule and
+ * the rules above it. The {@link CompletionSite} implied by the candidates is
+ * cached along with them.
+ */
+public class CandidatesCache {
+
+    static final int MAX_ENTRIES = 256;
+
+    private final Set<Integer> preferredRules;
+    private final Set<Integer> ignoredTokens;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CandidatesCache(Set<Integer> preferredRules, Set<Integer> ignoredTokens) {
+        this.preferredRules = preferredRules;
+        this.ignoredTokens = ignoredTokens;
+    }
+
+    /**
+     * Candidates at {@code caretTokenIndex} of the parser's token stream, and the site
+     * their rule stacks classify to. The candidates are shared: don't modify them.
+     */
+    public Entry get(DrlxParser parser, int caretTokenIndex) {
+        return get(parser, caretTokenIndex, null);
+    }
+
+    /**
+     * Like {@link #get(DrlxParser, int)}, but starts candidate collection at
+     * {@code scope} instead of the start rule, so only the tokens from its start to
+     * the caret are walked. The caret must be inside {@code scope}; a {@code null}
+     * scope walks from the start of the document. Rule stacks then only go back to
+     * the scope's rule, so its ancestors in the parse tree are added back for the
+     * site classification.
+     */
+    public Entry get(DrlxParser parser, int caretTokenIndex, ParserRuleContext scope) {
+        List<Integer> outerRules = outerRules(scope);
+        int from = scope == null ? 0 : scope.getStart().getTokenIndex();
+        Key key = Key.of(parser.getTokenStream(), from, caretTokenIndex, outerRules, scope);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry;
+        }
+
+        misses.incrementAndGet();
+        CodeCompletionCore core = new CodeCompletionCore(parser, preferredRules, ignoredTokens);
+        CodeCompletionCore.CandidatesCollection candidates = core.collectCandidates(caretTokenIndex, scope);
+        entry = new Entry(candidates, CompletionContextAnalyzer.classify(candidates, outerRules));
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static List<Integer> outerRules(ParserRuleContext scope) {
+        if (scope == null) {
+            return List.of();
+        }
+        List<Integer> rules = new ArrayList<>();
+        for (ParserRuleContext parent = scope.getParent(); parent != null; parent = parent.getParent()) {
+            rules.add(0, parent.getRuleIndex());
+        }
+        return rules;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public record Entry(CodeCompletionCore.CandidatesCollection candidates, CompletionSite site) {
+    }
+
+    private static final class Key {
+
+        private final int[] types;
+        private final int hash;
+
+        private Key(int[] types) {
+            this.types = types;
+            this.hash = Arrays.hashCode(types);
+        }
+
+        /**
+         * The scope's rule and its ancestors are encoded as negative numbers, which no
+         * token type uses, ahead of the token types.
+         */
+        static Key of(TokenStream tokens, int from, int caretTokenIndex, List<Integer> outerRules,
+                      ParserRuleContext scope) {
+            int end = Math.min(caretTokenIndex, tokens.size());
+            int[] types = new int[outerRules.size() + 1 + Math.max(0, end - from)];
+            int count = 0;
+            for (int rule : outerRules) {
+                types[count++] = -rule - 2;
+            }
+            types[count++] = scope == null ? -1 : -scope.getRuleIndex() - 2;
+            if (tokens instanceof CompactTokenStream compact) {
+                // Without materializing the tokens
+                CompactTokenBuffer buffer = compact.buffer();
+                for (int i = from; i < end; i++) {
+                    if (buffer.channel(i) == Token.DEFAULT_CHANNEL) {
+                        types[count++] = buffer.type(i);
+                    }
+                }
+            } else {
+                for (int i = from; i < end; i++) {
+                    Token token = tokens.get(i);
+                    if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+                        types[count++] = token.getType();
+                    }
+                }
+            }
+            return new Key(Arrays.copyOf(types, count));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && hash == other.hash && Arrays.equals(types, other.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
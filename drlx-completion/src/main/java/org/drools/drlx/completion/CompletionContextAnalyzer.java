@@ -1,5 +1,6 @@
 package org.drools.drlx.completion;
 
+import java.util.BitSet;
 import java.util.List;
 
 import com.vmware.antlr4c3.CodeCompletionCore;
@@ -8,6 +9,51 @@ import org.drools.drlx.parser.DrlxParser;
 
 public class CompletionContextAnalyzer {
 
+    /**
+     * Checked in order: the first row whose rules are all on the identifier's call
+     * stack, and none of whose excluded rules are, gives the site.
+     */
+    private static final List<SiteRule> SITE_RULES = List.of(
+            new SiteRule(CompletionSite.CONSEQUENCE_EXPRESSION, rules(DrlxParser.RULE_ruleConsequence, DrlxParser.RULE_block)),
+            new SiteRule(CompletionSite.TEST_EXPRESSION, rules(DrlxParser.RULE_testElement)),
+            new SiteRule(CompletionSite.CONSTRAINT_EXPRESSION, rules(DrlxParser.RULE_drlxExpression)),
+            new SiteRule(CompletionSite.ENTRY_POINT, rules(DrlxParser.RULE_oopathRoot)),
+            new SiteRule(CompletionSite.OOPATH_CHUNK, rules(DrlxParser.RULE_oopathChunk)),
+            new SiteRule(CompletionSite.RULE_ITEM, rules(DrlxParser.RULE_ruleItem, DrlxParser.RULE_boundOopath)),
+            new SiteRule(CompletionSite.BIND_NAME, rules(DrlxParser.RULE_boundOopath)),
+            new SiteRule(CompletionSite.RULE_PARAMETER, rules(DrlxParser.RULE_ruleParameter, DrlxParser.RULE_typeType)),
+            new SiteRule(CompletionSite.BIND_NAME, rules(DrlxParser.RULE_ruleParameter)),
+            new SiteRule(CompletionSite.RULE_DECLARATION, rules(DrlxParser.RULE_ruleDeclaration),
+                    rules(DrlxParser.RULE_ruleBody, DrlxParser.RULE_altAnnotationQualifiedName)),
+            new SiteRule(CompletionSite.COMPILATION_UNIT, rules(DrlxParser.RULE_compilationUnit)),
+            new SiteRule(CompletionSite.COMPILATION_UNIT, rules(DrlxParser.RULE_drlxCompilationUnit))
+    );
+
+    private record SiteRule(CompletionSite site, int[] required, int[] excluded) {
+
+        SiteRule(CompletionSite site, int[] required) {
+            this(site, required, new int[0]);
+        }
+
+        boolean matches(BitSet rules) {
+            for (int rule : required) {
+                if (!rules.get(rule)) {
+                    return false;
+                }
+            }
+            for (int rule : excluded) {
+                if (rules.get(rule)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int[] rules(int... rules) {
+        return rules;
+    }
+
     private CompletionContextAnalyzer() {
     }
 
@@ -20,68 +66,44 @@ public class CompletionContextAnalyzer {
             return CompletionSite.DOT_ACCESS;
         }
 
+        return classify(candidates, List.of());
+    }
+
+    /**
+     * The site implied by the call stack of the {@code identifier} candidate alone,
+     * without looking at tokens. Depends only on the candidates, so it can be cached
+     * along with them (see {@link CandidatesCache}).
+     *
+     * @param outerRules rules enclosing the context candidate collection started from,
+     *                   which the candidates' rule stacks don't include
+     */
+    public static CompletionSite classify(CodeCompletionCore.CandidatesCollection candidates,
+                                          List<Integer> outerRules) {
         List<Integer> identifierStack = candidates.rules.get(DrlxParser.RULE_identifier);
         if (identifierStack == null) {
             return CompletionSite.UNKNOWN;
         }
 
-        if (identifierStack.contains(DrlxParser.RULE_ruleConsequence)
-                && identifierStack.contains(DrlxParser.RULE_block)) {
-            return CompletionSite.CONSEQUENCE_EXPRESSION;
-        }
-
-        if (identifierStack.contains(DrlxParser.RULE_testElement)) {
-            return CompletionSite.TEST_EXPRESSION;
-        }
-
-        if (identifierStack.contains(DrlxParser.RULE_drlxExpression)) {
-            return CompletionSite.CONSTRAINT_EXPRESSION;
-        }
-
-        if (identifierStack.contains(DrlxParser.RULE_oopathRoot)) {
-            return CompletionSite.ENTRY_POINT;
-        }
-
-        if (identifierStack.contains(DrlxParser.RULE_oopathChunk)) {
-            return CompletionSite.OOPATH_CHUNK;
-        }
-
-        if (identifierStack.contains(DrlxParser.RULE_ruleItem)
-                && identifierStack.contains(DrlxParser.RULE_boundOopath)) {
-            return CompletionSite.RULE_ITEM;
-        }
-
-        if (identifierStack.contains(DrlxParser.RULE_boundOopath)) {
-            return CompletionSite.BIND_NAME;
+        BitSet rules = new BitSet();
+        for (int rule : outerRules) {
+            rules.set(rule);
         }
-
-        if (identifierStack.contains(DrlxParser.RULE_ruleParameter)
-                && identifierStack.contains(DrlxParser.RULE_typeType)) {
-            return CompletionSite.RULE_PARAMETER;
-        }
-
-        if (identifierStack.contains(DrlxParser.RULE_ruleParameter)) {
-            return CompletionSite.BIND_NAME;
+        for (int rule : identifierStack) {
+            rules.set(rule);
         }
-
-        if (identifierStack.contains(DrlxParser.RULE_ruleDeclaration)
-                && !identifierStack.contains(DrlxParser.RULE_ruleBody)
-                && !identifierStack.contains(DrlxParser.RULE_altAnnotationQualifiedName)) {
-            return CompletionSite.RULE_DECLARATION;
+        for (SiteRule siteRule : SITE_RULES) {
+            if (siteRule.matches(rules)) {
+                return siteRule.site();
+            }
         }
-
-        if (identifierStack.contains(DrlxParser.RULE_compilationUnit)
-                || identifierStack.contains(DrlxParser.RULE_drlxCompilationUnit)) {
-            return CompletionSite.COMPILATION_UNIT;
-        }
-
         return CompletionSite.UNKNOWN;
     }
 
-    private static boolean isDotAccess(DrlxParser parser, int caretTokenIndex) {
+    static boolean isDotAccess(DrlxParser parser, int caretTokenIndex) {
         if (caretTokenIndex < 1) {
             return false;
         }
-        return parser.getTokenStream().get(caretTokenIndex - 1).getType() == DrlxLexer.DOT;
+        int previous = parser.getTokenStream().get(caretTokenIndex - 1).getType();
+        return previous == DrlxLexer.DOT || previous == DrlxLexer.EXCL_DOT;
     }
 }
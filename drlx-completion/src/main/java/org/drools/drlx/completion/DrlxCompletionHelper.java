@@ -8,10 +8,14 @@ import java.util.Optional;
 import java.util.Set;
 
 import com.vmware.antlr4c3.CodeCompletionCore;
-import org.antlr.v4.runtime.ANTLRInputStream;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.CompletionWindow;
+import org.drools.drlx.completion.document.DocumentSnapshot;
+import org.drools.drlx.completion.document.DocumentSummary;
+import org.drools.drlx.completion.document.DrlxDocumentParser;
+import org.drools.drlx.completion.document.PositionIndex;
+import org.drools.drlx.completion.document.Rope;
 import org.drools.drlx.completion.semantic.CompletionContext;
 import org.drools.drlx.completion.semantic.CompletionExpression;
 import org.drools.drlx.completion.semantic.ExpressionTypeResolver;
@@ -19,8 +23,8 @@ import org.drools.drlx.completion.semantic.MemberCompletionProvider;
 import org.drools.drlx.completion.semantic.SemanticType;
 import org.drools.drlx.completion.semantic.VisibleSymbols;
 import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
-import org.drools.drlx.parser.DrlxLexer;
 import org.drools.drlx.parser.DrlxParser;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionItemKind;
 import org.eclipse.lsp4j.Position;
@@ -38,31 +42,96 @@ public class DrlxCompletionHelper {
     private final WorkspaceSemanticModel model;
     private final ExpressionTypeResolver resolver;
     private final MemberCompletionProvider memberProvider;
+    private final DrlxDocumentParser documentParser = new DrlxDocumentParser();
+    private final CandidatesCache candidatesCache = new CandidatesCache(PREFERRED_RULES, Tokens.IGNORED);
+    private final TopLevelKeywords topLevelKeywords = new TopLevelKeywords();
+    private final boolean windowed;
     private List<String> lastDiagnostics = List.of();
 
     public DrlxCompletionHelper(WorkspaceSemanticModel model,
                                 ExpressionTypeResolver resolver,
                                 MemberCompletionProvider memberProvider) {
+        this(model, resolver, memberProvider, true);
+    }
+
+    /**
+     * @param windowed whether completion on plain text, which has no snapshot to reuse,
+     *                 parses only the header and the rule around the caret (see
+     *                 {@link CompletionWindow}) instead of the whole document
+     */
+    public DrlxCompletionHelper(WorkspaceSemanticModel model,
+                                ExpressionTypeResolver resolver,
+                                MemberCompletionProvider memberProvider,
+                                boolean windowed) {
         this.model = model;
         this.resolver = resolver;
         this.memberProvider = memberProvider;
+        this.windowed = windowed;
     }
 
     public List<CompletionItem> getCompletionItems(String text, Position caretPosition) {
-        DrlxParser parser = createDrlxParser(text);
+        if (!windowed) {
+            return getCompletionItems(documentParser.parse(null, 0, text), caretPosition);
+        }
+        Rope rope = Rope.of(text);
+        List<Token> tokens = documentParser.lex(rope);
+        int caretTokenIndex = PositionIndex.of(rope, tokens).caretTokenIndex(caretPosition);
+        TopLevelKeywords.Place place = TopLevelKeywords.classify(tokens, caretTokenIndex);
+        if (place != null) {
+            return topLevelItems(place);
+        }
+        return getCompletionItems(CompletionWindow.parse(documentParser, tokens, caretTokenIndex));
+    }
 
-        int row = caretPosition == null ? -1 : caretPosition.getLine() + 1;
-        int col = caretPosition == null ? -1 : caretPosition.getCharacter();
+    /**
+     * Computes completions against an already parsed snapshot, so repeated requests
+     * on an unchanged document do not lex or parse the text again.
+     */
+    public List<CompletionItem> getCompletionItems(DocumentSnapshot snapshot, Position caretPosition) {
+        int caretTokenIndex = snapshot.positions().caretTokenIndex(caretPosition);
+        TopLevelKeywords.Place place = TopLevelKeywords.classify(snapshot, caretTokenIndex);
+        if (place != null) {
+            return topLevelItems(place);
+        }
+        // CodeCompletionCore seeks the snapshot's shared token stream
+        synchronized (snapshot) {
+            return getCompletionItems(snapshot.parser(), caretTokenIndex, snapshot.parseTree(), snapshot.summary());
+        }
+    }
 
-        ParseTree parseTree = parser.drlxStart();
-        Integer caretTokenIndex = computeTokenIndex(parser, row, col);
+    private List<CompletionItem> topLevelItems(TopLevelKeywords.Place place) {
+        lastDiagnostics = List.of();
+        return topLevelKeywords.items(place, this::fullCompletionItems);
+    }
+
+    /**
+     * Completion without the lexer-only shortcut for top-level places.
+     */
+    List<CompletionItem> fullCompletionItems(String text, Position caretPosition) {
+        if (windowed) {
+            return getCompletionItems(CompletionWindow.parse(documentParser, Rope.of(text), caretPosition));
+        }
+        DocumentSnapshot snapshot = documentParser.parse(null, 0, text);
+        return getCompletionItems(snapshot.parser(), snapshot.positions().caretTokenIndex(caretPosition),
+                snapshot.parseTree(), snapshot.summary());
+    }
 
-        return getCompletionItems(parser, caretTokenIndex, parseTree);
+    private List<CompletionItem> getCompletionItems(CompletionWindow window) {
+        return getCompletionItems(window.parser(), window.caretTokenIndex(), window.parseTree(), window.summary());
     }
 
-    private List<CompletionItem> getCompletionItems(DrlxParser parser, int caretTokenIndex, ParseTree parseTree) {
-        CodeCompletionCore core = new CodeCompletionCore(parser, PREFERRED_RULES, Tokens.IGNORED);
-        CodeCompletionCore.CandidatesCollection candidates = core.collectCandidates(caretTokenIndex, null);
+    private List<CompletionItem> getCompletionItems(DrlxParser parser, int caretTokenIndex, ParseTree parseTree,
+                                                    DocumentSummary summary) {
+        if (CompletionContextAnalyzer.isDotAccess(parser, caretTokenIndex)) {
+            // Member access: the grammar candidates add nothing useful, skip collecting them
+            CompletionContext ctx = model.createContext(parser, parseTree, caretTokenIndex, summary);
+            List<CompletionItem> items = resolveDotAccess(ctx);
+            lastDiagnostics = ctx.diagnostics();
+            return deduplicateItems(items);
+        }
+
+        CandidatesCache.Entry cached = candidatesCache.get(parser, caretTokenIndex, enclosingRule(summary, caretTokenIndex));
+        CodeCompletionCore.CandidatesCollection candidates = cached.candidates();
 
         logger.info("getCompletionItems: candidates = {}", candidates);
 
@@ -77,9 +146,9 @@ public class DrlxCompletionHelper {
                 .forEach(items::add);
 
         // 2. Additionally: semantic completions when identifier rule applies
-        CompletionSite site = CompletionContextAnalyzer.analyze(candidates, parser, caretTokenIndex);
+        CompletionSite site = cached.site();
         if (site.needsSemanticCompletions()) {
-            CompletionContext ctx = model.createContext(parser, parseTree, caretTokenIndex);
+            CompletionContext ctx = model.createContext(parser, parseTree, caretTokenIndex, summary);
             items.addAll(createSemanticCompletions(site, ctx));
             lastDiagnostics = ctx.diagnostics();
         } else {
@@ -90,9 +159,24 @@ public class DrlxCompletionHelper {
         return deduplicateItems(items);
     }
 
+    /**
+     * The top-level rule the caret is strictly inside of, so candidate collection
+     * can start there instead of at the start of the document; {@code null} (a full
+     * walk) when there is none or it did not parse cleanly up to its closing token.
+     */
+    static RuleDeclarationContext enclosingRule(DocumentSummary summary, int caretTokenIndex) {
+        // The last rule starting before the caret
+        RuleDeclarationContext rule = summary.enclosingRule(caretTokenIndex - 1);
+        if (rule == null || rule.getStop() == null || caretTokenIndex > rule.getStop().getTokenIndex()) {
+            return null;
+        }
+        return rule.exception == null && rule.getStop().getTokenIndex() >= rule.getStart().getTokenIndex()
+                ? rule
+                : null;
+    }
+
     private List<CompletionItem> createSemanticCompletions(CompletionSite site, CompletionContext ctx) {
         return switch (site) {
-            case DOT_ACCESS -> resolveDotAccess(ctx);
             case ENTRY_POINT -> resolveEntryPointNames(ctx);
             case OOPATH_CHUNK -> resolveOopathChunkCompletions(ctx);
             case CONSTRAINT_EXPRESSION -> resolveConstraintExpressionCompletions(ctx);
@@ -102,7 +186,7 @@ public class DrlxCompletionHelper {
 
     private List<CompletionItem> resolveDotAccess(CompletionContext ctx) {
         CompletionExpression expression = CompletionExpression.fromCaretPosition(
-                ctx.parser(), ctx.parseTree(), ctx.caretTokenIndex());
+                ctx.parser(), ctx.parseTree(), ctx.caretTokenIndex(), ctx.summary());
 
         VisibleSymbols symbols = ctx.buildVisibleSymbols();
         Optional<SemanticType> resolved = resolver.resolve(expression, symbols, model);
@@ -178,25 +262,8 @@ public class DrlxCompletionHelper {
         };
     }
 
-    private DrlxParser createDrlxParser(String text) {
-        ANTLRInputStream input = new ANTLRInputStream(text);
-        DrlxLexer lexer = new DrlxLexer(input);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        return new DrlxParser(tokens);
-    }
-
-    private Integer computeTokenIndex(DrlxParser parser, int row, int col) {
-        CommonTokenStream tokens = (CommonTokenStream) parser.getTokenStream();
-        int tokenIndex = 0;
-
-        for (Token token : tokens.getTokens()) {
-            if (token.getLine() > row || (token.getLine() == row && token.getCharPositionInLine() >= col)) {
-                break;
-            }
-            tokenIndex++;
-        }
-
-        return tokenIndex;
+    public CandidatesCache candidatesCache() {
+        return candidatesCache;
     }
 
     public List<String> lastDiagnostics() {
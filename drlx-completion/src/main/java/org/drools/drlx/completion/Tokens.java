@@ -3,10 +3,14 @@ package org.drools.drlx.completion;
 import java.util.Set;
 
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
 import org.drools.drlx.parser.DrlxLexer;
 
 public class Tokens {
 
+    public static final int RULE = literalType("'rule'");
+    public static final int UNIT = literalType("'unit'");
+
     public static Set<Integer> IGNORED = Set.of(
             Token.EPSILON, Token.EOF, Token.INVALID_TYPE,
 
@@ -23,4 +27,14 @@ public class Tokens {
             DrlxLexer.ARROW, DrlxLexer.COLONCOLON, DrlxLexer.AT, DrlxLexer.ELLIPSIS, DrlxLexer.WS, DrlxLexer.COMMENT,
             DrlxLexer.LINE_COMMENT, DrlxLexer.IDENTIFIER
     );
-}
\ No newline at end of file
+
+    private static int literalType(String literal) {
+        Vocabulary vocabulary = DrlxLexer.VOCABULARY;
+        for (int type = 0; type <= vocabulary.getMaxTokenType(); type++) {
+            if (literal.equals(vocabulary.getLiteralName(type))) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("No " + literal + " token in the DRLX vocabulary");
+    }
+}
@@ -0,0 +1,125 @@
+package org.drools.drlx.completion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.antlr.v4.runtime.Token;
+import org.drools.drlx.completion.document.DocumentSnapshot;
+import org.drools.drlx.completion.document.TokenTable;
+import org.drools.drlx.parser.DrlxLexer;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.Position;
+
+/**
+ * Lexer-only completion at top-level positions.
+ *
+ * <p>At {@link CompletionSite#COMPILATION_UNIT} and {@link CompletionSite#RULE_DECLARATION}
+ * sites the results are keywords (plus the {@code IDENTIFIER} placeholder), and they
+ * only depend on where in the document structure the caret is. {@link #classify}
+ * recognizes the unambiguous cases from the significant tokens before the caret and
+ * their brace depth; the items of each case are computed once, by running the full
+ * completion path on a canonical snippet, and handed out from then on without
+ * parsing. Every other position, including a half-typed keyword, is left to the
+ * full path.
+ */
+public class TopLevelKeywords {
+
+    public enum Place {
+        /** Nothing but whitespace and comments before the caret. */
+        DOCUMENT_START("", 0, 0),
+        /** Right after {@code unit X;}. */
+        AFTER_UNIT("unit U;\n", 1, 0),
+        /** Right after the closing brace of a top-level rule. */
+        AFTER_RULE("unit U;\nrule R {\n}\n", 3, 0),
+        /** Right after a top-level {@code rule} keyword: the rule name. */
+        RULE_NAME("unit U;\nrule ", 1, 5);
+
+        private final String snippet;
+        private final int line;
+        private final int character;
+
+        Place(String snippet, int line, int character) {
+            this.snippet = snippet;
+            this.line = line;
+            this.character = character;
+        }
+    }
+
+    private final Map<Place, List<CompletionItem>> items = new ConcurrentHashMap<>();
+
+    /**
+     * The top-level place of {@code caretTokenIndex}, or {@code null} if it is not
+     * one of the recognized ones.
+     */
+    public static Place classify(List<? extends Token> tokens, int caretTokenIndex) {
+        return classify(TokenTable.of(tokens), 0, caretTokenIndex);
+    }
+
+    /**
+     * As {@link #classify(List, int)} on a parsed document, scanning only from the
+     * start of the last rule before the caret, or of the document if there is none.
+     */
+    public static Place classify(DocumentSnapshot snapshot, int caretTokenIndex) {
+        int ruleStart = snapshot.summary().enclosingRuleStart(caretTokenIndex - 1);
+        return classify(snapshot.tokenTable(), Math.max(0, ruleStart), caretTokenIndex);
+    }
+
+    /**
+     * Scans from {@code from}, where a top-level item starts.
+     */
+    private static Place classify(TokenTable tokens, int from, int caretTokenIndex) {
+        int end = Math.min(caretTokenIndex, tokens.size());
+        int depth = 0;
+        int itemStart = Token.INVALID_TYPE;
+        boolean atItemStart = true;
+        int previous = Token.INVALID_TYPE;
+        for (int i = from; i < end; i++) {
+            int type = tokens.type(i);
+            if (tokens.channel(i) != Token.DEFAULT_CHANNEL || type == Token.EOF) {
+                continue;
+            }
+            if (atItemStart) {
+                itemStart = type;
+                atItemStart = false;
+            }
+            if (type == DrlxLexer.LBRACE) {
+                depth++;
+            } else if (type == DrlxLexer.RBRACE) {
+                depth = Math.max(0, depth - 1);
+                atItemStart = depth == 0;
+            } else if (type == DrlxLexer.SEMI && depth == 0) {
+                atItemStart = true;
+            }
+            previous = type;
+        }
+
+        if (previous == Token.INVALID_TYPE) {
+            return Place.DOCUMENT_START;
+        }
+        if (depth != 0) {
+            return null;
+        }
+        if (previous == Tokens.RULE && itemStart == Tokens.RULE) {
+            return Place.RULE_NAME;
+        }
+        if (previous == DrlxLexer.RBRACE && itemStart == Tokens.RULE) {
+            return Place.AFTER_RULE;
+        }
+        if (previous == DrlxLexer.SEMI && itemStart == Tokens.UNIT) {
+            return Place.AFTER_UNIT;
+        }
+        return null;
+    }
+
+    /**
+     * The items for {@code place}, computed on first use by {@code fullCompletion}
+     * from a canonical snippet at that place. The items are shared: don't modify them.
+     */
+    public List<CompletionItem> items(Place place,
+                                      BiFunction<String, Position, List<CompletionItem>> fullCompletion) {
+        return items.computeIfAbsent(place, p ->
+                List.copyOf(fullCompletion.apply(p.snippet, new Position(p.line, p.character))));
+    }
+}
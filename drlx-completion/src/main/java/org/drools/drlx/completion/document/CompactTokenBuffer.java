@@ -0,0 +1,264 @@
+package org.drools.drlx.completion.document;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.WritableToken;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * The tokens of a document version as parallel {@code int} arrays (type, channel,
+ * start, stop, line, column) instead of one {@link CommonToken} per token.
+ *
+ * <p>Token text is not stored: it is sliced from the document content when asked
+ * for. {@link #get} materializes a short-lived {@link Token} whose text is sliced
+ * the same way; callers that only need a field should use the field accessors.
+ */
+public class CompactTokenBuffer implements TokenTable {
+
+    private final Rope content;
+    private final int size;
+    private final int[] types;
+    private final int[] channels;
+    private final int[] starts;
+    private final int[] stops;
+    private final int[] lines;
+    private final int[] columns;
+    private final List<Token> tokens = new TokenList();
+    private volatile Pair<TokenSource, CharStream> source;
+
+    private CompactTokenBuffer(Rope content, int size) {
+        this.content = content;
+        this.size = size;
+        this.types = new int[size];
+        this.channels = new int[size];
+        this.starts = new int[size];
+        this.stops = new int[size];
+        this.lines = new int[size];
+        this.columns = new int[size];
+    }
+
+    /**
+     * Copies the fields of {@code tokens}, lexed from {@code content}, ending with
+     * its {@code EOF} token.
+     */
+    public static CompactTokenBuffer of(List<? extends Token> tokens, Rope content) {
+        CompactTokenBuffer buffer = new CompactTokenBuffer(content, tokens.size());
+        for (int i = 0; i < buffer.size; i++) {
+            Token token = tokens.get(i);
+            buffer.types[i] = token.getType();
+            buffer.channels[i] = token.getChannel();
+            buffer.starts[i] = token.getStartIndex();
+            buffer.stops[i] = token.getStopIndex();
+            buffer.lines[i] = token.getLine();
+            buffer.columns[i] = token.getCharPositionInLine();
+        }
+        return buffer;
+    }
+
+    /**
+     * The tokens of {@code content}: tokens {@code [0, restart)} of {@code old},
+     * then {@code window}, then tokens {@code [resume, old.size())} of {@code old}
+     * shifted by {@code charDelta} and {@code lineDelta}, and by {@code columnDelta}
+     * on line {@code syncLine}. Reused tokens are copied array to array.
+     */
+    static CompactTokenBuffer splice(CompactTokenBuffer old, int restart, List<? extends Token> window, int resume,
+                                     Rope content, int charDelta, int syncLine, int lineDelta, int columnDelta) {
+        int tail = old.size - resume;
+        CompactTokenBuffer buffer = new CompactTokenBuffer(content, restart + window.size() + tail);
+        old.copyTo(buffer, 0, 0, restart);
+        for (int i = 0; i < window.size(); i++) {
+            Token token = window.get(i);
+            int at = restart + i;
+            buffer.types[at] = token.getType();
+            buffer.channels[at] = token.getChannel();
+            buffer.starts[at] = token.getStartIndex();
+            buffer.stops[at] = token.getStopIndex();
+            buffer.lines[at] = token.getLine();
+            buffer.columns[at] = token.getCharPositionInLine();
+        }
+        int at = restart + window.size();
+        old.copyTo(buffer, resume, at, tail);
+        for (int i = at; i < buffer.size; i++) {
+            if (buffer.lines[i] == syncLine) {
+                buffer.columns[i] += columnDelta;
+            }
+            buffer.starts[i] += charDelta;
+            buffer.stops[i] += charDelta;
+            buffer.lines[i] += lineDelta;
+        }
+        return buffer;
+    }
+
+    private void copyTo(CompactTokenBuffer target, int from, int to, int length) {
+        System.arraycopy(types, from, target.types, to, length);
+        System.arraycopy(channels, from, target.channels, to, length);
+        System.arraycopy(starts, from, target.starts, to, length);
+        System.arraycopy(stops, from, target.stops, to, length);
+        System.arraycopy(lines, from, target.lines, to, length);
+        System.arraycopy(columns, from, target.columns, to, length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int type(int index) {
+        return types[index];
+    }
+
+    @Override
+    public int channel(int index) {
+        return channels[index];
+    }
+
+    @Override
+    public int startIndex(int index) {
+        return starts[index];
+    }
+
+    @Override
+    public int stopIndex(int index) {
+        return stops[index];
+    }
+
+    @Override
+    public int line(int index) {
+        return lines[index];
+    }
+
+    @Override
+    public int charPositionInLine(int index) {
+        return columns[index];
+    }
+
+    public String text(int index) {
+        if (types[index] == Token.EOF) {
+            return "<EOF>";
+        }
+        return content.substring(starts[index], stops[index] + 1);
+    }
+
+    public Rope content() {
+        return content;
+    }
+
+    /**
+     * A new token with the fields of token {@code index}.
+     */
+    public Token get(int index) {
+        CommonToken token = new CommonToken(source(), types[index], channels[index], starts[index], stops[index]);
+        token.setLine(lines[index]);
+        token.setCharPositionInLine(columns[index]);
+        token.setTokenIndex(index);
+        return token;
+    }
+
+    /**
+     * The tokens as a read-only list, materializing each one on {@code get}.
+     */
+    public List<Token> asList() {
+        return tokens;
+    }
+
+    /**
+     * A source of the tokens, walking the buffer from its first token. Error recovery
+     * conjures up missing tokens from a stream's source; the text of the tokens it
+     * makes is read from the content through it.
+     */
+    TokenSource tokenSource() {
+        return new Source(source().b);
+    }
+
+    private Pair<TokenSource, CharStream> source() {
+        Pair<TokenSource, CharStream> result = source;
+        if (result == null) {
+            result = new Source(content.charStream()).pair;
+            source = result;
+        }
+        return result;
+    }
+
+    /**
+     * Hands out the tokens of the buffer in order, as a lexer would, then {@code EOF}
+     * again and again. Like a lexer, an instance is not thread-safe.
+     */
+    private class Source implements TokenSource {
+
+        private final CharStream input;
+        private final Pair<TokenSource, CharStream> pair;
+        private TokenFactory<?> factory = CommonTokenFactory.DEFAULT;
+        private int next;
+
+        Source(CharStream input) {
+            this.input = input;
+            this.pair = new Pair<>(this, input);
+        }
+
+        @Override
+        public Token nextToken() {
+            int index = next;
+            Token token = factory.create(pair, types[index], null, channels[index],
+                    starts[index], stops[index], lines[index], columns[index]);
+            if (token instanceof WritableToken writable) {
+                writable.setTokenIndex(index);
+            }
+            if (next < size - 1) {
+                next++;
+            }
+            return token;
+        }
+
+        @Override
+        public int getLine() {
+            return lines[next];
+        }
+
+        @Override
+        public int getCharPositionInLine() {
+            return columns[next];
+        }
+
+        @Override
+        public CharStream getInputStream() {
+            return input;
+        }
+
+        @Override
+        public String getSourceName() {
+            return input.getSourceName();
+        }
+
+        @Override
+        public void setTokenFactory(TokenFactory<?> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public TokenFactory<?> getTokenFactory() {
+            return factory;
+        }
+    }
+
+    private class TokenList extends AbstractList<Token> implements RandomAccess {
+
+        @Override
+        public Token get(int index) {
+            return CompactTokenBuffer.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.drools.drlx.completion.document;
+
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * A {@link TokenStream} over a {@link CompactTokenBuffer}, seeing the default
+ * channel like {@code CommonTokenStream} does: {@code LT}/{@code LA} skip other
+ * channels, {@link #get} and indices cover all tokens.
+ *
+ * <p>{@link #LA} reads the type arrays directly; {@link #LT} and {@link #get}
+ * materialize a token, the last of which is reused for repeated lookups of the
+ * same index. Like any token stream, an instance is not thread-safe.
+ */
+public class CompactTokenStream implements TokenStream {
+
+    private final CompactTokenBuffer buffer;
+    private int p;
+    private int lastIndex = -1;
+    private Token lastToken;
+
+    public CompactTokenStream(CompactTokenBuffer buffer) {
+        if (buffer.size() == 0 || buffer.type(buffer.size() - 1) != Token.EOF) {
+            throw new IllegalArgumentException("The buffer must end with an EOF token");
+        }
+        this.buffer = buffer;
+        this.p = nextOnChannel(0);
+    }
+
+    public CompactTokenBuffer buffer() {
+        return buffer;
+    }
+
+    private int nextOnChannel(int i) {
+        int last = buffer.size() - 1;
+        while (i < last && buffer.channel(i) != Token.DEFAULT_CHANNEL) {
+            i++;
+        }
+        return Math.min(i, last);
+    }
+
+    private int previousOnChannel(int i) {
+        while (i >= 0 && buffer.channel(i) != Token.DEFAULT_CHANNEL) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * The index of the {@code k}-th default-channel token from the current one, or
+     * {@code -1} before the first one.
+     */
+    private int lookIndex(int k) {
+        if (k < 0) {
+            int i = p;
+            for (int n = 0; n < -k && i >= 0; n++) {
+                i = previousOnChannel(i - 1);
+            }
+            return i;
+        }
+        int i = p;
+        for (int n = 1; n < k; n++) {
+            if (buffer.type(i) == Token.EOF) {
+                break;
+            }
+            i = nextOnChannel(i + 1);
+        }
+        return i;
+    }
+
+    @Override
+    public Token LT(int k) {
+        if (k == 0) {
+            return null;
+        }
+        int index = lookIndex(k);
+        return index < 0 ? null : get(index);
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+        int index = lookIndex(i);
+        return index < 0 ? Token.INVALID_TYPE : buffer.type(index);
+    }
+
+    @Override
+    public void consume() {
+        if (buffer.type(p) == Token.EOF) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        p = nextOnChannel(p + 1);
+    }
+
+    @Override
+    public int index() {
+        return p;
+    }
+
+    @Override
+    public void seek(int index) {
+        p = nextOnChannel(Math.max(0, index));
+    }
+
+    @Override
+    public int mark() {
+        return 0;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public Token get(int i) {
+        if (i < 0 || i >= buffer.size()) {
+            throw new IndexOutOfBoundsException("token index " + i + " out of range 0.." + (buffer.size() - 1));
+        }
+        if (i != lastIndex) {
+            lastToken = buffer.get(i);
+            lastIndex = i;
+        }
+        return lastToken;
+    }
+
+    @Override
+    public TokenSource getTokenSource() {
+        return buffer.tokenSource();
+    }
+
+    @Override
+    public String getSourceName() {
+        return getTokenSource().getSourceName();
+    }
+
+    @Override
+    public String getText() {
+        return getText(Interval.of(0, buffer.size() - 1));
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = Math.max(0, interval.a);
+        int stop = Math.min(interval.b, buffer.size() - 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = start; i <= stop && buffer.type(i) != Token.EOF; i++) {
+            text.append(buffer.text(i));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String getText(RuleContext ctx) {
+        return getText(ctx.getSourceInterval());
+    }
+
+    @Override
+    public String getText(Token start, Token stop) {
+        if (start == null || stop == null) {
+            return "";
+        }
+        return getText(Interval.of(start.getTokenIndex(), stop.getTokenIndex()));
+    }
+}
@@ -0,0 +1,89 @@
+package org.drools.drlx.completion.document;
+
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.drools.drlx.parser.DrlxLexer;
+
+/**
+ * Error recovery for parsing the code around a completion caret, which is
+ * incomplete by nature.
+ *
+ * <p>{@link DefaultErrorStrategy} resynchronises by consuming tokens until one that
+ * can follow a rule on the invocation stack, which on half-typed code can skip over
+ * the rest of the rule, caret included. This strategy also stops at the tokens that
+ * end DRLX constructs ({@code {}, {@code }}, {@code ;}, {@code ,}, {@code ]}), and
+ * never consumes the caret token while resynchronising or deleting a token, so the
+ * tree around the caret is built from what the user actually typed there.
+ *
+ * <p>The default strategy's guarantee of progress is kept: recovering twice at the
+ * same token and state still consumes it.
+ */
+public class CompletionErrorStrategy extends DefaultErrorStrategy {
+
+    private static final IntervalSet SYNC_TOKENS = IntervalSet.of(DrlxLexer.LBRACE, DrlxLexer.RBRACE);
+
+    static {
+        SYNC_TOKENS.add(DrlxLexer.SEMI);
+        SYNC_TOKENS.add(DrlxLexer.COMMA);
+        SYNC_TOKENS.add(DrlxLexer.RBRACK);
+        SYNC_TOKENS.setReadonly(true);
+    }
+
+    private final int caretTokenIndex;
+    private final RecoveryStatistics statistics;
+
+    /**
+     * @param caretTokenIndex index of the caret token in the parser's token stream
+     */
+    public CompletionErrorStrategy(int caretTokenIndex, RecoveryStatistics statistics) {
+        this.caretTokenIndex = caretTokenIndex;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void recover(Parser recognizer, RecognitionException e) {
+        statistics.recordRecovery();
+        super.recover(recognizer, e);
+    }
+
+    @Override
+    public Token recoverInline(Parser recognizer) throws RecognitionException {
+        Token token = super.recoverInline(recognizer);
+        statistics.recordInlineRecovery();
+        return token;
+    }
+
+    @Override
+    protected Token singleTokenDeletion(Parser recognizer) {
+        if (recognizer.getInputStream().index() >= caretTokenIndex) {
+            return null;
+        }
+        return super.singleTokenDeletion(recognizer);
+    }
+
+    @Override
+    protected IntervalSet getErrorRecoverySet(Parser recognizer) {
+        IntervalSet recoverySet = super.getErrorRecoverySet(recognizer);
+        recoverySet.addAll(SYNC_TOKENS);
+        return recoverySet;
+    }
+
+    @Override
+    protected void consumeUntil(Parser recognizer, IntervalSet set) {
+        int skipped = 0;
+        int type = recognizer.getInputStream().LA(1);
+        while (type != Token.EOF && !set.contains(type)) {
+            if (recognizer.getInputStream().index() >= caretTokenIndex) {
+                statistics.recordCaretStop();
+                break;
+            }
+            recognizer.consume();
+            skipped++;
+            type = recognizer.getInputStream().LA(1);
+        }
+        statistics.recordSkippedTokens(skipped);
+    }
+}
@@ -0,0 +1,226 @@
+package org.drools.drlx.completion.document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.eclipse.lsp4j.Position;
+
+/**
+ * The part of a document completion needs, parsed on its own: the header
+ * (everything before the first top-level {@code rule}: package, imports, unit) and
+ * the top-level rule around the caret.
+ *
+ * <p>Both are found by scanning tokens rather than parsing: a rule starts at a
+ * {@code rule} keyword outside any braces and runs until the next one. The tokens
+ * of the window are copied into a token stream of their own, so the parse, the
+ * candidate collection and {@code CompletionContext} only ever see the header and
+ * one rule, and their cost does not grow with the rest of the document.
+ *
+ * <p>Syntax errors in the window are recovered from with a {@link CompletionErrorStrategy},
+ * which keeps the caret token out of its resynchronisation; what it did is counted
+ * in {@link #recoveryStatistics()}.
+ *
+ * <p>The window's parser is the thread's pooled one (see {@link Recognizers}): use
+ * a window on the thread that parsed it, before parsing the next one.
+ */
+public class CompletionWindow {
+
+    static final int RULE_KEYWORD = tokenType(DrlxLexer.VOCABULARY, "'rule'");
+
+    private static final RecoveryStatistics RECOVERY_STATISTICS = new RecoveryStatistics();
+
+    private final DrlxParser parser;
+    private final ParseTree parseTree;
+    private final int caretTokenIndex;
+    private DocumentSummary summary;
+
+    private CompletionWindow(DrlxParser parser, ParseTree parseTree, int caretTokenIndex) {
+        this.parser = parser;
+        this.parseTree = parseTree;
+        this.caretTokenIndex = caretTokenIndex;
+    }
+
+    /**
+     * Lexes {@code text} in full (cheap) and parses the window around {@code caret}.
+     */
+    public static CompletionWindow parse(DrlxDocumentParser documentParser, Rope text, Position caret) {
+        List<Token> tokens = documentParser.lex(text);
+        return parse(documentParser, tokens, PositionIndex.of(text, tokens).caretTokenIndex(caret));
+    }
+
+    /**
+     * Parses the window around {@code caret} out of the tokens of {@code snapshot},
+     * without touching its parser or token stream.
+     */
+    public static CompletionWindow parse(DrlxDocumentParser documentParser, DocumentSnapshot snapshot, Position caret) {
+        int caretTokenIndex = snapshot.positions().caretTokenIndex(caret);
+        int[] bounds = bounds(snapshot.tokenTable(), caretTokenIndex, snapshot.summary());
+        return DfaMemoryManager.shared().withDfa(() -> doParse(documentParser, snapshot.tokens(), caretTokenIndex, bounds,
+                windowCaret -> new CompletionErrorStrategy(windowCaret, RECOVERY_STATISTICS)));
+    }
+
+    /**
+     * Parses the window around {@code caretTokenIndex} of a fully lexed document,
+     * ending with its {@code EOF} token. The tokens are not modified.
+     */
+    public static CompletionWindow parse(DrlxDocumentParser documentParser, List<? extends Token> tokens,
+                                         int caretTokenIndex) {
+        return parse(documentParser, tokens, caretTokenIndex,
+                windowCaret -> new CompletionErrorStrategy(windowCaret, RECOVERY_STATISTICS));
+    }
+
+    /**
+     * As {@link #parse(DrlxDocumentParser, List, int)}, recovering from syntax errors
+     * with the strategy {@code recovery} creates for the caret index in the window.
+     */
+    static CompletionWindow parse(DrlxDocumentParser documentParser, List<? extends Token> tokens,
+                                  int caretTokenIndex, IntFunction<ANTLRErrorStrategy> recovery) {
+        return DfaMemoryManager.shared().withDfa(() -> doParse(documentParser, tokens, caretTokenIndex,
+                bounds(TokenTable.of(tokens), caretTokenIndex), recovery));
+    }
+
+    private static CompletionWindow doParse(DrlxDocumentParser documentParser, List<? extends Token> tokens,
+                                            int caretTokenIndex, int[] bounds, IntFunction<ANTLRErrorStrategy> recovery) {
+        int headerEnd = bounds[0];
+        int ruleStart = bounds[1];
+        int ruleEnd = bounds[2];
+
+        List<Token> window = new ArrayList<>(headerEnd + ruleEnd - ruleStart + 1);
+        for (int i = 0; i < headerEnd; i++) {
+            window.add(new CommonToken(tokens.get(i)));
+        }
+        for (int i = ruleStart; i < ruleEnd; i++) {
+            window.add(new CommonToken(tokens.get(i)));
+        }
+        window.add(eofAt(tokens.get(ruleEnd)));
+
+        CommonTokenStream tokenStream = new CommonTokenStream(new ListTokenSource(window));
+        tokenStream.fill();
+        int windowCaret = caretTokenIndex < headerEnd ? caretTokenIndex : headerEnd + caretTokenIndex - ruleStart;
+
+        DrlxParser parser = Recognizers.parser(tokenStream);
+        // Not counted against any document: a window is not a version of it
+        ParseTree tree = documentParser.run(null, parser, 0, new SyntaxErrorCollector(), DrlxParser::drlxStart,
+                () -> recovery.apply(windowCaret));
+
+        return new CompletionWindow(parser, tree, windowCaret);
+    }
+
+    /**
+     * {@code [headerEnd, ruleStart, ruleEnd]}: the header is {@code [0, headerEnd)}, the
+     * rule around the caret {@code [ruleStart, ruleEnd)}. A caret in the header gives an
+     * empty rule at {@code headerEnd}. The caret is never past {@code ruleEnd}, which
+     * may be the index of the document's {@code EOF} token.
+     */
+    static int[] bounds(TokenTable tokens, int caretTokenIndex) {
+        return bounds(tokens, caretTokenIndex, 0, -1);
+    }
+
+    /**
+     * As {@link #bounds(TokenTable, int)}, scanning from the start of the rule around
+     * the caret in {@code summary} rather than from the start of the document.
+     */
+    static int[] bounds(TokenTable tokens, int caretTokenIndex, DocumentSummary summary) {
+        int caret = Math.max(0, Math.min(caretTokenIndex, tokens.size() - 1));
+        int ruleStart = summary.enclosingRuleStart(caret - 1);
+        return ruleStart < 0
+                ? bounds(tokens, caretTokenIndex)
+                : bounds(tokens, caretTokenIndex, ruleStart, summary.ruleStart(0));
+    }
+
+    /**
+     * Scans from {@code from}, the start of the header, or of a rule if the header
+     * is known to end at {@code headerEnd}.
+     */
+    private static int[] bounds(TokenTable tokens, int caretTokenIndex, int from, int headerEnd) {
+        int eof = tokens.size() - 1;
+        int caret = Math.max(0, Math.min(caretTokenIndex, eof));
+        int ruleStart = headerEnd < 0 ? -1 : from;
+        int depth = 0;
+        int i = from;
+        for (; i < eof; i++) {
+            if (tokens.channel(i) != Token.DEFAULT_CHANNEL) {
+                continue;
+            }
+            int type = tokens.type(i);
+            if (type == DrlxLexer.LBRACE) {
+                depth++;
+            } else if (type == DrlxLexer.RBRACE) {
+                depth = Math.max(0, depth - 1);
+            } else if (type == RULE_KEYWORD && depth == 0) {
+                if (i >= caret) {
+                    break;
+                }
+                if (headerEnd < 0) {
+                    headerEnd = i;
+                }
+                ruleStart = i;
+            }
+        }
+        if (ruleStart < 0) {
+            // The caret is in the header: it ends where the first rule starts
+            return new int[] {i, i, i};
+        }
+        return new int[] {headerEnd, ruleStart, i};
+    }
+
+    private static Token eofAt(Token next) {
+        CommonToken eof = new CommonToken(next);
+        eof.setType(Token.EOF);
+        eof.setChannel(Token.DEFAULT_CHANNEL);
+        eof.setText("<EOF>");
+        eof.setStopIndex(next.getStartIndex() - 1);
+        return eof;
+    }
+
+    private static int tokenType(Vocabulary vocabulary, String literal) {
+        for (int type = 0; type <= vocabulary.getMaxTokenType(); type++) {
+            if (literal.equals(vocabulary.getLiteralName(type))) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("No " + literal + " token in the DRLX vocabulary");
+    }
+
+    /**
+     * What error recovery did in all completion windows parsed so far.
+     */
+    public static RecoveryStatistics recoveryStatistics() {
+        return RECOVERY_STATISTICS;
+    }
+
+    public DrlxParser parser() {
+        return parser;
+    }
+
+    public ParseTree parseTree() {
+        return parseTree;
+    }
+
+    /**
+     * The summary of the window's tree: the document's header, and the rule around the caret.
+     */
+    public DocumentSummary summary() {
+        if (summary == null) {
+            summary = DocumentSummary.of(parseTree);
+        }
+        return summary;
+    }
+
+    /**
+     * The caret token index translated into the window's token stream.
+     */
+    public int caretTokenIndex() {
+        return caretTokenIndex;
+    }
+}
@@ -0,0 +1,167 @@
+package org.drools.drlx.completion.document;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the DFA shared by all {@code DrlxLexer} and {@code DrlxParser} instances
+ * within a bound.
+ *
+ * <p>The generated recognizers cache their predictions in static DFA arrays that
+ * only ever grow, and half-typed input seen during completion adds many states
+ * that are never hit again. Every lexer/parser run goes through {@link #withDfa},
+ * which holds a read lock; after the run the number of DFA states is compared to
+ * {@code maxStates} and, once it is exceeded, the DFA is cleared under the write
+ * lock. Clearing therefore never happens while a parse is in flight: if one is,
+ * the clear is simply retried after the next parse.
+ *
+ * <p>The DFA is global to the JVM, and so is this manager ({@link #shared()}).
+ */
+public class DfaMemoryManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(DfaMemoryManager.class);
+
+    /**
+     * Rough per-object sizes used by {@link DfaMetrics#estimatedBytes()}: a DFA state
+     * with its edge array and map entry, and an ATN configuration in its set.
+     */
+    private static final int BYTES_PER_STATE = 120;
+    private static final int BYTES_PER_CONFIG = 48;
+
+    private static final DfaMemoryManager SHARED =
+            new DfaMemoryManager(Integer.getInteger("drlx.dfa.maxStates", 100_000));
+
+    /**
+     * A point-in-time view of the DFA size.
+     *
+     * @param parserStates   DFA states cached by the parser, over all decisions
+     * @param lexerStates    DFA states cached by the lexer, over all modes
+     * @param configs        ATN configurations held by those states
+     * @param estimatedBytes approximate heap retained by the DFA
+     * @param clears         how many times the DFA has been cleared
+     */
+    public record DfaMetrics(int parserStates, int lexerStates, long configs, long estimatedBytes, long clears) {
+
+        public int states() {
+            return parserStates + lexerStates;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong clears = new AtomicLong();
+    private final ParserATNSimulator parserSimulator;
+    private final LexerATNSimulator lexerSimulator;
+    private volatile int maxStates;
+
+    DfaMemoryManager(int maxStates) {
+        this.maxStates = maxStates;
+        // The DFA arrays are static, so any instance gives access to them
+        this.parserSimulator = new DrlxParser(null).getInterpreter();
+        this.lexerSimulator = new DrlxLexer(null).getInterpreter();
+    }
+
+    public static DfaMemoryManager shared() {
+        return SHARED;
+    }
+
+    public int maxStates() {
+        return maxStates;
+    }
+
+    /**
+     * @param maxStates DFA state count above which the DFA is cleared; {@code 0} or less disables clearing
+     */
+    public void setMaxStates(int maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Runs a lexer/parser job, then clears the DFA if it grew past {@link #maxStates()}.
+     */
+    public <T> T withDfa(Supplier<T> job) {
+        lock.readLock().lock();
+        try {
+            return job.get();
+        } finally {
+            lock.readLock().unlock();
+            trimIfNeeded();
+        }
+    }
+
+    private void trimIfNeeded() {
+        int limit = maxStates;
+        if (limit <= 0) {
+            return;
+        }
+        int states = stateCount(parserSimulator.decisionToDFA) + stateCount(lexerSimulator.decisionToDFA);
+        if (states <= limit || !lock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            clear();
+            logger.info("Cleared {} DFA states (limit {})", states, limit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops all cached DFA states, waiting for in-flight parses to finish.
+     */
+    public void clearNow() {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        parserSimulator.clearDFA();
+        lexerSimulator.clearDFA();
+        clears.incrementAndGet();
+    }
+
+    public DfaMetrics metrics() {
+        int parserStates = stateCount(parserSimulator.decisionToDFA);
+        int lexerStates = stateCount(lexerSimulator.decisionToDFA);
+        long configs = configCount(parserSimulator.decisionToDFA) + configCount(lexerSimulator.decisionToDFA);
+        long estimatedBytes = (long) (parserStates + lexerStates) * BYTES_PER_STATE + configs * BYTES_PER_CONFIG;
+        return new DfaMetrics(parserStates, lexerStates, configs, estimatedBytes, clears.get());
+    }
+
+    private static int stateCount(DFA[] dfas) {
+        int count = 0;
+        for (DFA dfa : dfas) {
+            count += dfa.states.size();
+        }
+        return count;
+    }
+
+    private static long configCount(DFA[] dfas) {
+        long count = 0;
+        for (DFA dfa : dfas) {
+            // The simulators add states while holding this monitor
+            synchronized (dfa.states) {
+                for (DFAState state : dfa.states.keySet()) {
+                    if (state.configs != null) {
+                        count += state.configs.size();
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,253 @@
+package org.drools.drlx.completion.document;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.RuntimeMetaData;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the lexer and parser DFA warm across server restarts.
+ *
+ * <p>ANTLR has no serialized form for its DFA states (they point into the ATN and
+ * into shared prediction contexts), so instead of the states themselves this cache
+ * persists the input that built them: the token type sequence of recently parsed
+ * documents and a few sample lexemes per token type. {@link #preload()} replays that
+ * input through a throwaway lexer and parser, which fills the static DFA shared by
+ * every {@code DrlxLexer}/{@code DrlxParser} with the same states a normal editing
+ * session would have learned.
+ *
+ * <p>The file is keyed by a hash of both serialized ATNs and the ANTLR runtime
+ * version; a cache written for another grammar is ignored.
+ */
+public class DfaWarmupCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DfaWarmupCache.class);
+
+    private static final int FORMAT = 1;
+    private static final int MAX_DOCUMENTS = 32;
+    private static final int MAX_TOKENS = 20_000;
+    private static final int MAX_SAMPLES_PER_TYPE = 4;
+    private static final int MAX_SAMPLE_LENGTH = 40;
+
+    private final Path file;
+    private final Map<String, int[]> sequences = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > MAX_DOCUMENTS;
+        }
+    };
+    private final Map<Integer, Set<String>> samples = new HashMap<>();
+
+    public DfaWarmupCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * The cache file under {@code drlx.dfa.cache.dir} (default {@code ~/.cache/drlx-lsp}),
+     * or {@code null} if disabled with {@code -Ddrlx.dfa.cache=false}.
+     */
+    public static DfaWarmupCache fromSystemProperties() {
+        if (!Boolean.parseBoolean(System.getProperty("drlx.dfa.cache", "true"))) {
+            return null;
+        }
+        Path dir = Path.of(System.getProperty("drlx.dfa.cache.dir",
+                Path.of(System.getProperty("user.home"), ".cache", "drlx-lsp").toString()));
+        return new DfaWarmupCache(dir.resolve("dfa-warmup.bin"));
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Remembers the input of a parsed document so it can be replayed after a restart.
+     */
+    public void record(DocumentSnapshot snapshot) {
+        List<Token> tokens = snapshot.tokens();
+        int[] types = new int[Math.min(tokens.size(), MAX_TOKENS)];
+        int count = 0;
+        synchronized (this) {
+            for (Token token : tokens) {
+                if (count == types.length) {
+                    break;
+                }
+                if (token.getChannel() != Token.DEFAULT_CHANNEL || token.getType() == Token.EOF) {
+                    continue;
+                }
+                types[count++] = token.getType();
+                addSample(token.getType(), token.getText());
+            }
+            sequences.put(snapshot.uri(), Arrays.copyOf(types, count));
+        }
+    }
+
+    private void addSample(int type, String text) {
+        if (text == null || text.length() > MAX_SAMPLE_LENGTH) {
+            return;
+        }
+        Set<String> texts = samples.computeIfAbsent(type, t -> new LinkedHashSet<>());
+        if (texts.size() < MAX_SAMPLES_PER_TYPE) {
+            texts.add(text);
+        }
+    }
+
+    /**
+     * Writes the recorded input to the cache file, replacing it atomically.
+     */
+    public synchronized void save() {
+        if (sequences.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), "dfa-warmup", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FORMAT);
+                out.writeUTF(grammarKey());
+                out.writeInt(samples.size());
+                for (Map.Entry<Integer, Set<String>> entry : samples.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (String text : entry.getValue()) {
+                        out.writeUTF(text);
+                    }
+                }
+                out.writeInt(sequences.size());
+                for (int[] types : sequences.values()) {
+                    out.writeInt(types.length);
+                    for (int type : types) {
+                        out.writeShort(type);
+                    }
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Saved DFA warm-up input of {} documents to {}", sequences.size(), file);
+        } catch (IOException e) {
+            logger.warn("Could not save DFA warm-up cache {}", file, e);
+        }
+    }
+
+    /**
+     * Loads the cache file, if present and written for this grammar, and replays it
+     * to warm up the lexer and parser DFA. The loaded input is kept, so the next
+     * {@link #save()} carries it forward.
+     *
+     * @return whether anything was replayed
+     */
+    public boolean preload() {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        List<int[]> loaded = new ArrayList<>();
+        Map<Integer, List<String>> loadedSamples = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT || !in.readUTF().equals(grammarKey())) {
+                logger.info("Ignoring DFA warm-up cache {} written for another grammar", file);
+                return false;
+            }
+            int typeCount = in.readInt();
+            for (int i = 0; i < typeCount; i++) {
+                int type = in.readInt();
+                int textCount = in.readInt();
+                List<String> texts = new ArrayList<>(textCount);
+                for (int j = 0; j < textCount; j++) {
+                    texts.add(in.readUTF());
+                }
+                loadedSamples.put(type, texts);
+            }
+            int sequenceCount = in.readInt();
+            for (int i = 0; i < sequenceCount; i++) {
+                int[] types = new int[in.readInt()];
+                for (int j = 0; j < types.length; j++) {
+                    types[j] = in.readShort();
+                }
+                loaded.add(types);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read DFA warm-up cache {}", file, e);
+            return false;
+        }
+
+        DfaMemoryManager.shared().withDfa(() -> {
+            warmUpLexer(loadedSamples);
+            for (int[] types : loaded) {
+                warmUpParser(types, loadedSamples);
+            }
+            return null;
+        });
+        synchronized (this) {
+            loadedSamples.forEach((type, texts) -> texts.forEach(text -> addSample(type, text)));
+            for (int i = 0; i < loaded.size(); i++) {
+                sequences.putIfAbsent("preloaded:" + i, loaded.get(i));
+            }
+        }
+        logger.info("Replayed DFA warm-up input of {} documents in {} ms",
+                loaded.size(), (System.nanoTime() - start) / 1_000_000);
+        return !loaded.isEmpty();
+    }
+
+    private static void warmUpLexer(Map<Integer, List<String>> samples) {
+        StringBuilder text = new StringBuilder();
+        for (List<String> texts : samples.values()) {
+            for (String sample : texts) {
+                text.append(sample).append('\n');
+            }
+        }
+        DrlxLexer lexer = Recognizers.lexer(CharStreams.fromString(text.toString()));
+        while (lexer.nextToken().getType() != Token.EOF) {
+            // lexing alone fills the lexer DFA
+        }
+    }
+
+    private static void warmUpParser(int[] types, Map<Integer, List<String>> samples) {
+        List<Token> tokens = new ArrayList<>(types.length + 1);
+        for (int type : types) {
+            List<String> texts = samples.get(type);
+            tokens.add(new CommonToken(type, texts != null && !texts.isEmpty() ? texts.get(0) : ""));
+        }
+        DrlxParser parser = Recognizers.parser(new CommonTokenStream(new ListTokenSource(tokens)));
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.drlxStart();
+    }
+
+    static String grammarKey() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(RuntimeMetaData.VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update(DrlxLexer._serializedATN.getBytes(StandardCharsets.UTF_8));
+            digest.update(DrlxParser._serializedATN.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
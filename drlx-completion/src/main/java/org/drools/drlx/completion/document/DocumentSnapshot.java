@@ -0,0 +1,188 @@
+package org.drools.drlx.completion.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.parser.DrlxParser;
+
+/**
+ * An immutable, fully parsed version of a DRLX document.
+ *
+ * <p>A snapshot is built once per document version (see {@link DrlxDocumentParser})
+ * and then shared by every feature that needs the tokens or the parse tree —
+ * completion, diagnostics and anything added later — so that none of them has
+ * to lex and parse the text again.
+ *
+ * <p>The parser is retained because antlr4-c3 needs it (ATN, vocabulary and
+ * token stream) to collect candidates. {@code CodeCompletionCore} seeks the
+ * shared token stream while it runs, so callers doing candidate collection must
+ * synchronize on the snapshot.
+ *
+ * <p>Once parsed, the tokens are moved into a {@link CompactTokenBuffer} and the
+ * parser reads them through a {@link CompactTokenStream}, so a snapshot doesn't keep
+ * a token object per token, whitespace and comments included, for as long as the
+ * version is current. Tokens the parse tree refers to are kept by the tree. Later
+ * versions splice the buffer of the previous one (see {@link TokenSplicer}), are
+ * parsed from tokens materialized from it once, and keep it. This
+ * can be switched off with {@code -Ddrlx.tokens.compact=false}.
+ */
+public class DocumentSnapshot {
+
+    static final boolean COMPACT_TOKENS = Boolean.parseBoolean(System.getProperty("drlx.tokens.compact", "true"));
+
+    private final String uri;
+    private final int version;
+    private final Rope content;
+    private volatile String text;
+    private final DrlxParser parser;
+    private final ParseTree parseTree;
+    private final CompactTokenBuffer tokenBuffer;
+    private final List<Token> tokens;
+    private final TokenTable tokenTable;
+    private final List<SyntaxError> lexerErrors;
+    private final List<SyntaxError> syntaxErrors;
+    private volatile PositionIndex positions;
+    private volatile DocumentSummary summary;
+
+    DocumentSnapshot(String uri, int version, Rope content, DrlxParser parser, ParseTree parseTree,
+                     List<SyntaxError> lexerErrors, List<SyntaxError> parserErrors) {
+        this(uri, version, content, parser, parseTree, null, lexerErrors, parserErrors);
+    }
+
+    /**
+     * @param spliced the compact tokens the parsed tokens were materialized from, kept
+     *                instead of compacting them again; {@code null} if there are none
+     */
+    DocumentSnapshot(String uri, int version, Rope content, DrlxParser parser, ParseTree parseTree,
+                     CompactTokenBuffer spliced, List<SyntaxError> lexerErrors, List<SyntaxError> parserErrors) {
+        this.uri = uri;
+        this.version = version;
+        this.content = content;
+        this.parser = parser;
+        this.parseTree = parseTree;
+        List<Token> parsed = ((BufferedTokenStream) parser.getTokenStream()).getTokens();
+        if (spliced != null) {
+            this.tokenBuffer = spliced;
+        } else if (COMPACT_TOKENS) {
+            this.tokenBuffer = CompactTokenBuffer.of(parsed, content);
+        } else {
+            this.tokenBuffer = null;
+        }
+        if (tokenBuffer != null) {
+            // Also resets the parser, which is done parsing
+            parser.setTokenStream(new CompactTokenStream(tokenBuffer));
+            this.tokens = tokenBuffer.asList();
+            this.tokenTable = tokenBuffer;
+        } else {
+            this.tokens = parsed;
+            this.tokenTable = TokenTable.of(tokens);
+        }
+        this.lexerErrors = lexerErrors;
+        List<SyntaxError> all = new ArrayList<>(lexerErrors);
+        all.addAll(parserErrors);
+        this.syntaxErrors = List.copyOf(all);
+    }
+
+    public String uri() {
+        return uri;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    /**
+     * The document text. Prefer {@link #content()} where a {@link CharSequence} will
+     * do: this copies the rope into a string on first use.
+     */
+    public String text() {
+        String result = text;
+        if (result == null) {
+            result = content.toString();
+            text = result;
+        }
+        return result;
+    }
+
+    public Rope content() {
+        return content;
+    }
+
+    public DrlxParser parser() {
+        return parser;
+    }
+
+    public TokenStream tokenStream() {
+        return parser.getTokenStream();
+    }
+
+    /**
+     * All tokens, on every channel, ending with {@code EOF}. With compact tokens each
+     * {@code get} materializes a new token.
+     */
+    public List<Token> tokens() {
+        return tokens;
+    }
+
+    /**
+     * The tokens as compact tokens, or {@code null} if they are switched off.
+     */
+    CompactTokenBuffer tokenBuffer() {
+        return tokenBuffer;
+    }
+
+    /**
+     * The fields of {@link #tokens()} by index, without materializing tokens.
+     */
+    public TokenTable tokenTable() {
+        return tokenTable;
+    }
+
+    /**
+     * Position/offset/token lookups for this version, built on first use.
+     */
+    public PositionIndex positions() {
+        PositionIndex index = positions;
+        if (index == null) {
+            index = tokenBuffer != null ? PositionIndex.of(content, tokenBuffer) : PositionIndex.of(content, tokens);
+            positions = index;
+        }
+        return index;
+    }
+
+    public ParseTree parseTree() {
+        return parseTree;
+    }
+
+    /**
+     * Imports, unit and rule index of this version, built on first use.
+     */
+    public DocumentSummary summary() {
+        DocumentSummary result = summary;
+        if (result == null) {
+            result = DocumentSummary.of(parseTree);
+            summary = result;
+        }
+        return result;
+    }
+
+    /**
+     * Errors reported by the lexer only; kept apart so an incremental update can
+     * carry forward those outside the relexed window.
+     */
+    List<SyntaxError> lexerErrors() {
+        return lexerErrors;
+    }
+
+    public List<SyntaxError> syntaxErrors() {
+        return syntaxErrors;
+    }
+
+    public boolean hasSyntaxErrors() {
+        return !syntaxErrors.isEmpty();
+    }
+}
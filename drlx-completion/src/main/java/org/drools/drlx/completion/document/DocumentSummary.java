@@ -0,0 +1,260 @@
+package org.drools.drlx.completion.document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser.BoundOopathContext;
+import org.drools.drlx.parser.DrlxParser.DrlxCompilationUnitContext;
+import org.drools.drlx.parser.DrlxParser.ImportDeclarationContext;
+import org.drools.drlx.parser.DrlxParser.OopathRootContext;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+import org.drools.drlx.parser.DrlxParser.UnitDeclarationContext;
+
+/**
+ * What completion needs to know about a parsed document as a whole: its imports,
+ * its unit class and where its rules are.
+ *
+ * <p>Built once per parse tree (see {@link DocumentSnapshot#summary()} and
+ * {@link CompletionWindow#summary()}) and shared by every completion context on
+ * it, instead of each of them walking the tree again. Rules are indexed by their
+ * token range, so {@link #enclosingRule} is a binary search.
+ */
+public class DocumentSummary {
+
+    private static final DocumentSummary EMPTY = new DocumentSummary(null);
+
+    private final DrlxCompilationUnitContext compilationUnit;
+    private final Set<String> imports;
+    private final List<String> starImports;
+    private final Map<String, String> importedTypes;
+    private final String unitClassName;
+    private final List<RuleDeclarationContext> rules;
+    private final int[] ruleStarts;
+    private final List<String> entryPointNames;
+    private final long headerFingerprint;
+
+    private DocumentSummary(DrlxCompilationUnitContext compilationUnit) {
+        this.compilationUnit = compilationUnit;
+        Set<String> allImports = new LinkedHashSet<>();
+        List<String> packages = new ArrayList<>();
+        Map<String, String> types = new LinkedHashMap<>();
+        String unit = null;
+        List<RuleDeclarationContext> ruleList = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        Set<String> entryPoints = new LinkedHashSet<>();
+        if (compilationUnit != null) {
+            for (ImportDeclarationContext imp : compilationUnit.importDeclaration()) {
+                if (imp.qualifiedName() == null) {
+                    continue;
+                }
+                String name = imp.qualifiedName().getText();
+                allImports.add(name);
+                if (isStarImport(imp)) {
+                    packages.add(name);
+                } else {
+                    // The first import of a simple name wins, as in resolveToFqcn before
+                    types.putIfAbsent(name.substring(name.lastIndexOf('.') + 1), name);
+                }
+            }
+            UnitDeclarationContext unitDecl = compilationUnit.unitDeclaration();
+            if (unitDecl != null && unitDecl.qualifiedName() != null) {
+                unit = unitDecl.qualifiedName().getText();
+            }
+            for (RuleDeclarationContext rule : compilationUnit.ruleDeclaration()) {
+                if (rule.getStart() != null) {
+                    ruleList.add(rule);
+                    starts.add(rule.getStart().getTokenIndex());
+                }
+                if (rule.ruleBody() != null) {
+                    for (var ruleItem : rule.ruleBody().ruleItem()) {
+                        collectEntryPoints(ruleItem, entryPoints);
+                    }
+                }
+            }
+        }
+        this.imports = Collections.unmodifiableSet(allImports);
+        this.starImports = List.copyOf(packages);
+        this.importedTypes = Collections.unmodifiableMap(types);
+        this.unitClassName = unit;
+        this.rules = Collections.unmodifiableList(ruleList);
+        this.ruleStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+        this.entryPointNames = List.copyOf(entryPoints);
+        this.headerFingerprint = RegionFingerprints.header(this);
+    }
+
+    public static DocumentSummary of(ParseTree tree) {
+        DrlxCompilationUnitContext compilationUnit = tree == null ? null : findCompilationUnit(tree);
+        return compilationUnit == null ? EMPTY : new DocumentSummary(compilationUnit);
+    }
+
+    private static DrlxCompilationUnitContext findCompilationUnit(ParseTree node) {
+        if (node instanceof DrlxCompilationUnitContext cu) {
+            return cu;
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            DrlxCompilationUnitContext found = findCompilationUnit(node.getChild(i));
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isStarImport(ImportDeclarationContext imp) {
+        for (int i = 0; i < imp.getChildCount(); i++) {
+            if (imp.getChild(i) instanceof TerminalNode terminal && terminal.getSymbol().getType() == DrlxLexer.MUL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code null} if the tree has no compilation unit.
+     */
+    public DrlxCompilationUnitContext compilationUnit() {
+        return compilationUnit;
+    }
+
+    /**
+     * The qualified names of all imports, in order; a star import contributes its package.
+     */
+    public Set<String> imports() {
+        return imports;
+    }
+
+    /**
+     * The packages of star imports, in order.
+     */
+    public List<String> starImports() {
+        return starImports;
+    }
+
+    /**
+     * The fully qualified name a single-type import gives {@code simpleName}, or {@code null}.
+     */
+    public String importedType(String simpleName) {
+        return importedTypes.get(simpleName);
+    }
+
+    /**
+     * Simple name to fully qualified name, for the single-type imports.
+     */
+    public Map<String, String> importedTypes() {
+        return importedTypes;
+    }
+
+    /**
+     * The unit class as written in the {@code unit} declaration, or {@code null}.
+     */
+    public String unitClassName() {
+        return unitClassName;
+    }
+
+    /**
+     * All rules, in order.
+     */
+    public List<RuleDeclarationContext> rules() {
+        return rules;
+    }
+
+    /**
+     * The token index rule {@code index} starts at.
+     */
+    int ruleStart(int index) {
+        return ruleStarts[index];
+    }
+
+    /**
+     * The index of the rule {@link #enclosingRule} returns, or {@code -1}.
+     */
+    private int enclosingRuleIndex(int tokenIndex) {
+        int low = 0;
+        int high = ruleStarts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ruleStarts[mid] <= tokenIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * The rule whose token range holds {@code tokenIndex} or, if none does, the last
+     * rule starting before it (the one being typed); {@code null} before the first rule.
+     */
+    public RuleDeclarationContext enclosingRule(int tokenIndex) {
+        int index = enclosingRuleIndex(tokenIndex);
+        return index < 0 ? null : rules.get(index);
+    }
+
+    /**
+     * The token index the rule {@link #enclosingRule} returns starts at, or {@code -1}.
+     */
+    public int enclosingRuleStart(int tokenIndex) {
+        int index = enclosingRuleIndex(tokenIndex);
+        return index < 0 ? -1 : ruleStarts[index];
+    }
+
+    /**
+     * The index of {@code rule} in {@link #rules()}, or {@code -1}.
+     */
+    public int indexOf(RuleDeclarationContext rule) {
+        if (rule.getStart() == null) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(ruleStarts, rule.getStart().getTokenIndex());
+        return index >= 0 && rules.get(index) == rule ? index : -1;
+    }
+
+    /**
+     * The token index the rule after {@code rule} starts at, or {@link Integer#MAX_VALUE}
+     * for the last rule.
+     */
+    public int nextRuleStart(RuleDeclarationContext rule) {
+        int index = indexOf(rule);
+        return index >= 0 && index + 1 < ruleStarts.length ? ruleStarts[index + 1] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * The fingerprint of the imports and the unit, see {@link RegionFingerprints#header}.
+     */
+    public long headerFingerprint() {
+        return headerFingerprint;
+    }
+
+    /**
+     * The entry points the rules bind from ({@code /persons} in {@code var p : /persons}),
+     * in order of first use. Collected while the rules are indexed.
+     */
+    public List<String> entryPointNames() {
+        return entryPointNames;
+    }
+
+    private static void collectEntryPoints(ParseTree node, Set<String> seen) {
+        if (node instanceof BoundOopathContext bound) {
+            var oopathExpr = bound.oopathExpression();
+            if (oopathExpr != null) {
+                OopathRootContext root = oopathExpr.oopathRoot();
+                if (root != null && root.identifier(0) != null) {
+                    seen.add(root.identifier(0).getText());
+                }
+            }
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            collectEntryPoints(node.getChild(i), seen);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.drools.drlx.completion.document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lexes and parses DRLX text into a {@link DocumentSnapshot}.
+ */
+public class DrlxDocumentParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrlxDocumentParser.class);
+
+    private final ParseStrategy strategy;
+    private final Map<String, ParseStatistics> statistics = new ConcurrentHashMap<>();
+
+    public DrlxDocumentParser() {
+        this(ParseStrategy.TWO_STAGE);
+    }
+
+    /**
+     * @param strategy how the parser is run, see {@link ParseStrategy}
+     */
+    public DrlxDocumentParser(ParseStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public ParseStrategy strategy() {
+        return strategy;
+    }
+
+    /**
+     * Which parsing stage produced the snapshots of {@code uri} so far.
+     */
+    public ParseStatistics statistics(String uri) {
+        return statistics.computeIfAbsent(uri, u -> new ParseStatistics());
+    }
+
+    /**
+     * Drops the counters of a closed document.
+     */
+    public void forget(String uri) {
+        statistics.remove(uri);
+    }
+
+    public DocumentSnapshot parse(String uri, int version, String text) {
+        return parse(uri, version, Rope.of(text));
+    }
+
+    public DocumentSnapshot parse(String uri, int version, Rope text) {
+        return DfaMemoryManager.shared().withDfa(() -> doParse(uri, version, text));
+    }
+
+    private DocumentSnapshot doParse(String uri, int version, Rope text) {
+        long start = System.nanoTime();
+
+        SyntaxErrorCollector lexerErrors = new SyntaxErrorCollector();
+        DrlxLexer lexer = Recognizers.lexer(text.charStream());
+        lexer.addErrorListener(lexerErrors);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        tokens.fill();
+
+        DocumentSnapshot snapshot = parseTokens(uri, version, text, tokens, null, lexerErrors.errors());
+        logger.debug("Parsed {} (version {}, {} tokens, {} syntax errors) in {} us",
+                uri, version, snapshot.tokens().size(), snapshot.syntaxErrors().size(), (System.nanoTime() - start) / 1000);
+        return snapshot;
+    }
+
+    /**
+     * Lexes {@code text} without parsing it; lexer errors are dropped.
+     */
+    public List<Token> lex(Rope text) {
+        return DfaMemoryManager.shared().withDfa(() -> {
+            DrlxLexer lexer = Recognizers.lexer(text.charStream());
+            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            tokens.fill();
+            return tokens.getTokens();
+        });
+    }
+
+    /**
+     * Builds the snapshot of the next version of a document from ranged edits,
+     * relexing only the tokens each edit damaged (see {@link TokenSplicer}).
+     * Changes are applied in order, each against the text produced by the previous one.
+     */
+    public DocumentSnapshot update(DocumentSnapshot previous, int version, List<TextChange> changes) {
+        return DfaMemoryManager.shared().withDfa(() -> doUpdate(previous, version, changes));
+    }
+
+    private DocumentSnapshot doUpdate(DocumentSnapshot previous, int version, List<TextChange> changes) {
+        long start = System.nanoTime();
+
+        Rope text = previous.content();
+        List<Token> tokens = previous.tokens();
+        CompactTokenBuffer buffer = previous.tokenBuffer();
+        List<SyntaxError> lexerErrors = previous.lexerErrors();
+        for (TextChange change : changes) {
+            text = change.apply(text);
+            SyntaxErrorCollector windowErrors = new SyntaxErrorCollector();
+            TokenSplicer.Splice splice = buffer != null
+                    ? TokenSplicer.splice(buffer, text, change, windowErrors)
+                    : TokenSplicer.splice(tokens, text.charStream(), change, windowErrors);
+            tokens = splice.tokens();
+            buffer = splice.buffer();
+            lexerErrors = carryForward(lexerErrors, splice, windowErrors.errors());
+        }
+
+        // The parser looks tokens up many times over: materialized once, not on every LT
+        CommonTokenStream tokenStream = new CommonTokenStream(new ListTokenSource(tokens));
+        tokenStream.fill();
+
+        DocumentSnapshot snapshot = parseTokens(previous.uri(), version, text, tokenStream, buffer, lexerErrors);
+        logger.debug("Updated {} to version {} ({} changes, {} tokens, {} syntax errors) in {} us",
+                previous.uri(), version, changes.size(), tokens.size(), snapshot.syntaxErrors().size(),
+                (System.nanoTime() - start) / 1000);
+        return snapshot;
+    }
+
+    private static List<SyntaxError> carryForward(List<SyntaxError> previous, TokenSplicer.Splice splice,
+                                                  List<SyntaxError> windowErrors) {
+        List<SyntaxError> errors = new ArrayList<>(windowErrors);
+        for (SyntaxError error : previous) {
+            SyntaxError shifted = splice.shift(error);
+            if (shifted != null) {
+                errors.add(shifted);
+            }
+        }
+        errors.sort((a, b) -> Integer.compare(a.startIndex(), b.startIndex()));
+        return List.copyOf(errors);
+    }
+
+    private DocumentSnapshot parseTokens(String uri, int version, Rope text,
+                                         CommonTokenStream tokens, CompactTokenBuffer spliced,
+                                         List<SyntaxError> lexerErrors) {
+        SyntaxErrorCollector parserErrors = new SyntaxErrorCollector();
+        // Kept by the snapshot for c3, so not a pooled one
+        DrlxParser parser = new DrlxParser(tokens);
+        ParseTree tree = run(uri, parser, 0, parserErrors, DrlxParser::drlxStart);
+
+        return new DocumentSnapshot(uri, version, text, parser, tree, spliced, lexerErrors, parserErrors.errors());
+    }
+
+    /**
+     * Runs {@code entryRule} from token {@code startIndex} according to the configured
+     * {@link ParseStrategy}, reporting syntax errors of the final pass to {@code errors}.
+     */
+    <T extends ParserRuleContext> T run(String uri, DrlxParser parser, int startIndex,
+                                        SyntaxErrorCollector errors, Function<DrlxParser, T> entryRule) {
+        return run(uri, parser, startIndex, errors, entryRule, DefaultErrorStrategy::new);
+    }
+
+    /**
+     * As {@link #run(String, DrlxParser, int, SyntaxErrorCollector, Function)}, with
+     * {@code recovery} handling the syntax errors of the LL pass. It is also left on
+     * the parser after an SLL pass, which has no syntax errors.
+     */
+    <T extends ParserRuleContext> T run(String uri, DrlxParser parser, int startIndex,
+                                        SyntaxErrorCollector errors, Function<DrlxParser, T> entryRule,
+                                        Supplier<ANTLRErrorStrategy> recovery) {
+        // Text parsed without a uri (e.g. one-off completion requests) is not tracked
+        ParseStatistics stats = uri == null ? new ParseStatistics() : statistics(uri);
+        TokenStream tokens = parser.getTokenStream();
+        tokens.seek(startIndex);
+        if (strategy == ParseStrategy.LL) {
+            parser.removeErrorListeners();
+            parser.addErrorListener(errors);
+            parser.setErrorHandler(recovery.get());
+            T result = entryRule.apply(parser);
+            stats.recordLl();
+            return result;
+        }
+
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        try {
+            T result = entryRule.apply(parser);
+            parser.setErrorHandler(recovery.get());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            stats.recordSll();
+            return result;
+        } catch (ParseCancellationException e) {
+            logger.debug("SLL parse of {} failed, retrying with LL", uri);
+        }
+
+        parser.setInputStream(tokens);
+        tokens.seek(startIndex);
+        parser.addErrorListener(errors);
+        parser.setErrorHandler(recovery.get());
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        T result = entryRule.apply(parser);
+        stats.recordLlFallback();
+        return result;
+    }
+}
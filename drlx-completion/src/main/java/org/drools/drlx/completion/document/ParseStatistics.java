@@ -0,0 +1,51 @@
+package org.drools.drlx.completion.document;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts, for one document, which parsing stage produced its snapshots.
+ */
+public class ParseStatistics {
+
+    private final AtomicLong sllParses = new AtomicLong();
+    private final AtomicLong llFallbacks = new AtomicLong();
+    private final AtomicLong llParses = new AtomicLong();
+
+    void recordSll() {
+        sllParses.incrementAndGet();
+    }
+
+    void recordLlFallback() {
+        llFallbacks.incrementAndGet();
+    }
+
+    void recordLl() {
+        llParses.incrementAndGet();
+    }
+
+    /**
+     * Parses completed by the SLL stage of {@link ParseStrategy#TWO_STAGE}.
+     */
+    public long sllParses() {
+        return sllParses.get();
+    }
+
+    /**
+     * Parses where SLL failed and the input was parsed again with full LL.
+     */
+    public long llFallbacks() {
+        return llFallbacks.get();
+    }
+
+    /**
+     * Single-pass parses with {@link ParseStrategy#LL}.
+     */
+    public long llParses() {
+        return llParses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ParseStatistics{sll=" + sllParses() + ", llFallbacks=" + llFallbacks() + ", ll=" + llParses() + "}";
+    }
+}
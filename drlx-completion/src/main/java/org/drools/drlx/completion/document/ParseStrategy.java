@@ -0,0 +1,19 @@
+package org.drools.drlx.completion.document;
+
+/**
+ * How {@link DrlxDocumentParser} runs the parser.
+ */
+public enum ParseStrategy {
+
+    /**
+     * Full LL prediction with the default error recovery, in a single pass.
+     */
+    LL,
+
+    /**
+     * SLL prediction with a bail-out error strategy first; only if that fails is
+     * the input parsed again with full LL prediction and error recovery. SLL is much
+     * cheaper and succeeds on any input without syntax errors, which is most of them.
+     */
+    TWO_STAGE
+}
@@ -0,0 +1,143 @@
+package org.drools.drlx.completion.document;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+/**
+ * Line start offsets and token start offsets of one document version, for
+ * logarithmic conversions between LSP positions, text offsets and tokens.
+ *
+ * <p>All offsets and characters are UTF-16 code units: LSP's default position
+ * encoding, {@link String} indices, and the indices {@code ANTLRInputStream} hands
+ * to the lexer all agree on them. Lines are split on {@code '\n'}, like the lexer
+ * counts them; a {@code '\r'} right before it is only treated as part of the line
+ * terminator when clamping a character offset to the line end.
+ */
+public class PositionIndex {
+
+    private final CharSequence text;
+    private final int length;
+    private final int[] lineStarts;
+    private final int[] tokenStarts;
+
+    private PositionIndex(CharSequence text, int[] lineStarts, int[] tokenStarts) {
+        this.text = text;
+        this.length = text.length();
+        this.lineStarts = lineStarts;
+        this.tokenStarts = tokenStarts;
+    }
+
+    public static PositionIndex of(CharSequence text, List<? extends Token> tokens) {
+        int[] tokenStarts = new int[tokens.size()];
+        for (int i = 0; i < tokenStarts.length; i++) {
+            tokenStarts[i] = tokens.get(i).getStartIndex();
+        }
+        return new PositionIndex(text, lineStarts(text), tokenStarts);
+    }
+
+    static PositionIndex of(CharSequence text, CompactTokenBuffer tokens) {
+        int[] tokenStarts = new int[tokens.size()];
+        for (int i = 0; i < tokenStarts.length; i++) {
+            tokenStarts[i] = tokens.startIndex(i);
+        }
+        return new PositionIndex(text, lineStarts(text), tokenStarts);
+    }
+
+    private static int[] lineStarts(CharSequence text) {
+        if (text instanceof Rope rope) {
+            return rope.lineStarts();
+        }
+        int[] lineStarts = new int[16];
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                if (lines == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+                }
+                lineStarts[lines++] = i + 1;
+            }
+        }
+        return Arrays.copyOf(lineStarts, lines);
+    }
+
+    public int lineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Offset of {@code position}. As LSP specifies, a character past the end of its
+     * line falls back to the line end (before {@code "\n"} or {@code "\r\n"}); a line
+     * past the end of the document maps to its length.
+     */
+    public int offsetAt(Position position) {
+        return offsetAt(position.getLine(), position.getCharacter());
+    }
+
+    public int offsetAt(int line, int character) {
+        if (line < 0) {
+            return 0;
+        }
+        if (line >= lineStarts.length) {
+            return length;
+        }
+        return Math.min(lineStarts[line] + Math.max(character, 0), lineEnd(line));
+    }
+
+    private int lineEnd(int line) {
+        if (line + 1 >= lineStarts.length) {
+            return length;
+        }
+        int end = lineStarts[line + 1] - 1;
+        if (end > lineStarts[line] && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    public Position positionAt(int offset) {
+        int clamped = Math.max(0, Math.min(offset, length));
+        int line = Arrays.binarySearch(lineStarts, clamped);
+        if (line < 0) {
+            line = -line - 2;
+        }
+        return new Position(line, clamped - lineStarts[line]);
+    }
+
+    /**
+     * Index of the first token starting at or after {@code offset}; the token count if there is none.
+     */
+    public int tokenIndexAt(int offset) {
+        int low = 0;
+        int high = tokenStarts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokenStarts[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The caret token index c3 expects for a caret at {@code position}: the first
+     * token starting at or after the caret. A {@code null} position maps to the
+     * first token.
+     */
+    public int caretTokenIndex(Position position) {
+        return position == null ? 0 : tokenIndexAt(offsetAt(position));
+    }
+
+    public Range range(Token token) {
+        return range(token.getStartIndex(), token.getStopIndex() + 1);
+    }
+
+    public Range range(int startOffset, int endOffset) {
+        return new Range(positionAt(startOffset), positionAt(Math.max(startOffset, endOffset)));
+    }
+}
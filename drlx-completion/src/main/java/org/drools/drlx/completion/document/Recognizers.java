@@ -0,0 +1,73 @@
+package org.drools.drlx.completion.document;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+
+/**
+ * One lexer and one parser per thread, reset with {@code setInputStream} for each
+ * use instead of being allocated for every parse and completion request.
+ *
+ * <p>Only instances that don't outlive the operation using them come from here: a
+ * lexer is done once its token stream is filled, and a pooled parser must not be
+ * used after the next {@link #parser} call on the same thread. Snapshot parsers,
+ * which c3 keeps using later, are allocated as before.
+ *
+ * <p>Handed-out instances have no error listeners, in particular not the default
+ * {@code ConsoleErrorListener}, which writes every syntax error to stderr.
+ * Pooling can be switched off with {@code -Ddrlx.recognizer.pool=false}, e.g. to
+ * compare allocation in the benchmarks.
+ */
+final class Recognizers {
+
+    static final boolean POOLED = Boolean.parseBoolean(System.getProperty("drlx.recognizer.pool", "true"));
+
+    private static final ThreadLocal<Recognizers> POOL = ThreadLocal.withInitial(Recognizers::new);
+
+    private DrlxLexer lexer;
+    private DrlxParser parser;
+
+    private Recognizers() {
+    }
+
+    static DrlxLexer lexer(CharStream input) {
+        DrlxLexer lexer;
+        if (!POOLED) {
+            lexer = new DrlxLexer(input);
+        } else {
+            Recognizers pool = POOL.get();
+            if (pool.lexer == null) {
+                pool.lexer = new DrlxLexer(input);
+            } else {
+                pool.lexer.setInputStream(input);
+            }
+            lexer = pool.lexer;
+        }
+        lexer.removeErrorListeners();
+        return lexer;
+    }
+
+    static DrlxParser parser(TokenStream tokens) {
+        DrlxParser parser;
+        if (!POOLED) {
+            parser = new DrlxParser(tokens);
+        } else {
+            Recognizers pool = POOL.get();
+            if (pool.parser == null) {
+                pool.parser = new DrlxParser(tokens);
+            } else {
+                // Also resets the parser
+                pool.parser.setInputStream(tokens);
+            }
+            parser = pool.parser;
+        }
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new DefaultErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        parser.setBuildParseTree(true);
+        return parser;
+    }
+}
@@ -0,0 +1,64 @@
+package org.drools.drlx.completion.document;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what {@link CompletionErrorStrategy} did to get past syntax errors.
+ */
+public class RecoveryStatistics {
+
+    private final AtomicLong recoveries = new AtomicLong();
+    private final AtomicLong inlineRecoveries = new AtomicLong();
+    private final AtomicLong skippedTokens = new AtomicLong();
+    private final AtomicLong caretStops = new AtomicLong();
+
+    void recordRecovery() {
+        recoveries.incrementAndGet();
+    }
+
+    void recordInlineRecovery() {
+        inlineRecoveries.incrementAndGet();
+    }
+
+    void recordSkippedTokens(int count) {
+        skippedTokens.addAndGet(count);
+    }
+
+    void recordCaretStop() {
+        caretStops.incrementAndGet();
+    }
+
+    /**
+     * Recoveries from an exception, which unwind to the rule that catches it.
+     */
+    public long recoveries() {
+        return recoveries.get();
+    }
+
+    /**
+     * Mismatched tokens recovered in place, by deleting or conjuring up a single token.
+     */
+    public long inlineRecoveries() {
+        return inlineRecoveries.get();
+    }
+
+    /**
+     * Tokens consumed while resynchronising.
+     */
+    public long skippedTokens() {
+        return skippedTokens.get();
+    }
+
+    /**
+     * Resynchronisations cut short because they reached the caret token.
+     */
+    public long caretStops() {
+        return caretStops.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RecoveryStatistics{recoveries=" + recoveries() + ", inline=" + inlineRecoveries()
+                + ", skippedTokens=" + skippedTokens() + ", caretStops=" + caretStops() + "}";
+    }
+}
@@ -0,0 +1,98 @@
+package org.drools.drlx.completion.document;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+
+/**
+ * Content hashes of the regions of a document that derived data depends on, so it
+ * can be cached by what it was computed from rather than by document version.
+ *
+ * <p>The header's fingerprint covers what types are resolved against: the imports
+ * and the unit. A rule's covers its tokens on every channel, from its first token
+ * up to the next rule (or the end of the document), by type and text. Two parses
+ * with equal fingerprints for a rule, whether of two versions of a document or of a
+ * document and a {@link CompletionWindow} on it, see the same tokens at the same
+ * offsets from the rule's start.
+ */
+public final class RegionFingerprints {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private RegionFingerprints() {
+    }
+
+    public static long header(DocumentSummary summary) {
+        long hash = OFFSET_BASIS;
+        for (String name : summary.imports()) {
+            hash = mix(hash, name);
+        }
+        // Keeps "import a; unit b" apart from "import a; import b"
+        hash = mix(hash, 0);
+        return summary.unitClassName() != null ? mix(hash, summary.unitClassName()) : hash;
+    }
+
+    /**
+     * The fingerprint of {@code rule}, one of the rules of {@code summary}, over the
+     * tokens of the stream it was parsed from.
+     */
+    public static long rule(DocumentSummary summary, TokenStream tokens, RuleDeclarationContext rule) {
+        int start = rule.getStart().getTokenIndex();
+        int end = Math.min(summary.nextRuleStart(rule), tokens.size());
+        if (tokens instanceof CompactTokenStream compact) {
+            return rule(compact.buffer(), start, end);
+        }
+        long hash = OFFSET_BASIS;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            Token token = tokens.get(i);
+            if (token.getType() == Token.EOF) {
+                break;
+            }
+            hash = mix(hash, token.getType());
+            hash = mix(hash, token.getText());
+            count++;
+        }
+        return mix(hash, count);
+    }
+
+    /**
+     * As the token walk of {@link #rule(DocumentSummary, TokenStream, RuleDeclarationContext)},
+     * reading types from the buffer and text from its content, without materializing tokens.
+     */
+    private static long rule(CompactTokenBuffer tokens, int start, int end) {
+        RopeCharStream content = tokens.content().charStream();
+        long hash = OFFSET_BASIS;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            int type = tokens.type(i);
+            if (type == Token.EOF) {
+                break;
+            }
+            hash = mix(hash, type);
+            int length = tokens.stopIndex(i) - tokens.startIndex(i) + 1;
+            content.seek(tokens.startIndex(i));
+            for (int k = 1; k <= length; k++) {
+                hash = mix(hash, content.LA(k));
+            }
+            hash = mix(hash, length);
+            count++;
+        }
+        return mix(hash, count);
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * PRIME;
+    }
+
+    private static long mix(long hash, String text) {
+        if (text == null) {
+            return mix(hash, -1);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            hash = mix(hash, text.charAt(i));
+        }
+        return mix(hash, text.length());
+    }
+}
@@ -0,0 +1,393 @@
+package org.drools.drlx.completion.document;
+
+/**
+ * An immutable rope: document text as a height-balanced tree of string chunks.
+ *
+ * <p>{@link #replace} returns a new rope sharing every untouched chunk with this
+ * one, in O(log n), so each document version is a cheap immutable snapshot that
+ * background readers can keep using while newer versions are built. Nodes also
+ * count newlines, which makes line-to-offset lookups O(log n) as well.
+ *
+ * <p>{@link #charStream()} exposes the rope to the lexer without copying it into
+ * one big array. Offsets are UTF-16 code units, as everywhere else in this package.
+ */
+public abstract class Rope implements CharSequence {
+
+    static final int MAX_LEAF = 1024;
+
+    private static final Rope EMPTY = new Leaf("");
+
+    Rope() {
+    }
+
+    public static Rope of(CharSequence text) {
+        if (text instanceof Rope rope) {
+            return rope;
+        }
+        return build(text.toString(), 0, text.length());
+    }
+
+    public static Rope empty() {
+        return EMPTY;
+    }
+
+    private static Rope build(String text, int start, int end) {
+        if (end - start <= MAX_LEAF) {
+            return new Leaf(text.substring(start, end));
+        }
+        int middle = (start + end) >>> 1;
+        return new Node(build(text, start, middle), build(text, middle, end));
+    }
+
+    abstract int height();
+
+    /**
+     * Number of {@code '\n'} characters.
+     */
+    public abstract int newlines();
+
+    /**
+     * Number of lines: one more than the number of {@code '\n'} characters.
+     */
+    public int lineCount() {
+        return newlines() + 1;
+    }
+
+    /**
+     * Replaces the characters in {@code [start, end)} with {@code text}.
+     */
+    public Rope replace(int start, int end, CharSequence text) {
+        if (start < 0 || end < start || end > length()) {
+            throw new IndexOutOfBoundsException("Cannot replace [" + start + ", " + end + ") in a rope of length " + length());
+        }
+        Rope result = concat(prefix(start), of(text));
+        return concat(result, suffix(end));
+    }
+
+    /**
+     * The characters in {@code [0, end)}.
+     */
+    abstract Rope prefix(int end);
+
+    /**
+     * The characters in {@code [start, length)}.
+     */
+    abstract Rope suffix(int start);
+
+    @Override
+    public Rope subSequence(int start, int end) {
+        if (start < 0 || end < start || end > length()) {
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + ") of " + length());
+        }
+        return prefix(end).suffix(start);
+    }
+
+    /**
+     * Offset of the first character of {@code line} (0-based); the length for lines past the end.
+     */
+    public int lineStart(int line) {
+        if (line <= 0) {
+            return 0;
+        }
+        if (line > newlines()) {
+            return length();
+        }
+        return offsetAfterNewline(line);
+    }
+
+    /**
+     * Offset just after the {@code n}-th newline (1-based).
+     */
+    abstract int offsetAfterNewline(int n);
+
+    /**
+     * Offset of an LSP position. A character past the end of its line falls back to
+     * the line end (before {@code "\n"} or {@code "\r\n"}), as LSP specifies.
+     */
+    public int offsetAt(int line, int character) {
+        if (line < 0) {
+            return 0;
+        }
+        if (line > newlines()) {
+            return length();
+        }
+        int start = lineStart(line);
+        int end;
+        if (line == newlines()) {
+            end = length();
+        } else {
+            end = lineStart(line + 1) - 1;
+            if (end > start && charAt(end - 1) == '\r') {
+                end--;
+            }
+        }
+        return Math.min(start + Math.max(character, 0), end);
+    }
+
+    /**
+     * Offsets of all line starts, in order.
+     */
+    public int[] lineStarts() {
+        int[] starts = new int[lineCount()];
+        int[] state = {1};
+        forEachLeaf(0, (leafStart, chunk) -> {
+            for (int i = chunk.indexOf('\n'); i >= 0; i = chunk.indexOf('\n', i + 1)) {
+                starts[state[0]++] = leafStart + i + 1;
+            }
+        });
+        return starts;
+    }
+
+    /**
+     * The leaf holding {@code index}, and its start offset in this rope.
+     */
+    abstract Leaf leafAt(int index, int[] leafStart);
+
+    interface LeafVisitor {
+        void visit(int leafStart, String chunk);
+    }
+
+    abstract void forEachLeaf(int offset, LeafVisitor visitor);
+
+    /**
+     * A lexer input reading this rope chunk by chunk.
+     */
+    public RopeCharStream charStream() {
+        return new RopeCharStream(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length());
+        forEachLeaf(0, (leafStart, chunk) -> builder.append(chunk));
+        return builder.toString();
+    }
+
+    /**
+     * Joins two ropes, keeping the tree height-balanced (AVL join) and merging small
+     * neighbouring leaves so that repeated single-character edits don't fragment it.
+     */
+    static Rope concat(Rope left, Rope right) {
+        if (left.length() == 0) {
+            return right;
+        }
+        if (right.length() == 0) {
+            return left;
+        }
+        if (left instanceof Leaf l && right instanceof Leaf r && l.length() + r.length() <= MAX_LEAF) {
+            return new Leaf(l.text + r.text);
+        }
+        int diff = left.height() - right.height();
+        if (diff > 1) {
+            Node node = (Node) left;
+            return rebalance(node.left, concat(node.right, right));
+        }
+        if (diff < -1) {
+            Node node = (Node) right;
+            return rebalance(concat(left, node.left), node.right);
+        }
+        return new Node(left, right);
+    }
+
+    private static Rope rebalance(Rope left, Rope right) {
+        int diff = left.height() - right.height();
+        if (diff > 1) {
+            Node l = (Node) left;
+            if (l.left.height() >= l.right.height()) {
+                return new Node(l.left, new Node(l.right, right));
+            }
+            Node lr = (Node) l.right;
+            return new Node(new Node(l.left, lr.left), new Node(lr.right, right));
+        }
+        if (diff < -1) {
+            Node r = (Node) right;
+            if (r.right.height() >= r.left.height()) {
+                return new Node(new Node(left, r.left), r.right);
+            }
+            Node rl = (Node) r.left;
+            return new Node(new Node(left, rl.left), new Node(rl.right, r.right));
+        }
+        return new Node(left, right);
+    }
+
+    static final class Leaf extends Rope {
+
+        final String text;
+        private final int newlines;
+
+        Leaf(String text) {
+            this.text = text;
+            int count = 0;
+            for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+                count++;
+            }
+            this.newlines = count;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(index);
+        }
+
+        @Override
+        int height() {
+            return 0;
+        }
+
+        @Override
+        public int newlines() {
+            return newlines;
+        }
+
+        @Override
+        Rope prefix(int end) {
+            return end == text.length() ? this : new Leaf(text.substring(0, end));
+        }
+
+        @Override
+        Rope suffix(int start) {
+            return start == 0 ? this : new Leaf(text.substring(start));
+        }
+
+        @Override
+        int offsetAfterNewline(int n) {
+            int index = -1;
+            for (int i = 0; i < n; i++) {
+                index = text.indexOf('\n', index + 1);
+            }
+            return index + 1;
+        }
+
+        @Override
+        Leaf leafAt(int index, int[] leafStart) {
+            return this;
+        }
+
+        @Override
+        void forEachLeaf(int offset, LeafVisitor visitor) {
+            visitor.visit(offset, text);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    static final class Node extends Rope {
+
+        final Rope left;
+        final Rope right;
+        private final int length;
+        private final int newlines;
+        private final int height;
+
+        Node(Rope left, Rope right) {
+            this.left = left;
+            this.right = right;
+            this.length = left.length() + right.length();
+            this.newlines = left.newlines() + right.newlines();
+            this.height = Math.max(left.height(), right.height()) + 1;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            Rope rope = this;
+            while (rope instanceof Node node) {
+                if (index < node.left.length()) {
+                    rope = node.left;
+                } else {
+                    index -= node.left.length();
+                    rope = node.right;
+                }
+            }
+            return rope.charAt(index);
+        }
+
+        @Override
+        int height() {
+            return height;
+        }
+
+        @Override
+        public int newlines() {
+            return newlines;
+        }
+
+        @Override
+        Rope prefix(int end) {
+            if (end == length) {
+                return this;
+            }
+            if (end <= left.length()) {
+                return left.prefix(end);
+            }
+            return concat(left, right.prefix(end - left.length()));
+        }
+
+        @Override
+        Rope suffix(int start) {
+            if (start == 0) {
+                return this;
+            }
+            if (start >= left.length()) {
+                return right.suffix(start - left.length());
+            }
+            return concat(left.suffix(start), right);
+        }
+
+        @Override
+        int offsetAfterNewline(int n) {
+            if (n <= left.newlines()) {
+                return left.offsetAfterNewline(n);
+            }
+            return left.length() + right.offsetAfterNewline(n - left.newlines());
+        }
+
+        @Override
+        Leaf leafAt(int index, int[] leafStart) {
+            if (index < left.length()) {
+                return left.leafAt(index, leafStart);
+            }
+            leafStart[0] += left.length();
+            return right.leafAt(index - left.length(), leafStart);
+        }
+
+        @Override
+        void forEachLeaf(int offset, LeafVisitor visitor) {
+            left.forEachLeaf(offset, visitor);
+            right.forEachLeaf(offset + left.length(), visitor);
+        }
+    }
+
+    /**
+     * Copies {@code [start, end)} into a new string, chunk by chunk.
+     */
+    public String substring(int start, int end) {
+        if (start >= end) {
+            return "";
+        }
+        char[] chars = new char[end - start];
+        int[] leafStart = {0};
+        int position = start;
+        while (position < end) {
+            leafStart[0] = 0;
+            Leaf leaf = leafAt(position, leafStart);
+            int from = position - leafStart[0];
+            int to = Math.min(leaf.length(), end - leafStart[0]);
+            leaf.text.getChars(from, to, chars, position - start);
+            position += to - from;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,100 @@
+package org.drools.drlx.completion.document;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * A {@link CharStream} over a {@link Rope}, without copying it.
+ *
+ * <p>The chunk holding the current position is cached, so the lexer's mostly
+ * sequential reads cost O(1) and only crossing into another chunk walks the tree.
+ * Symbols are UTF-16 code units, like {@code ANTLRInputStream}.
+ */
+public class RopeCharStream implements CharStream {
+
+    private final Rope rope;
+    private final int size;
+    private final int[] leafStart = new int[1];
+    private int index;
+    private String chunk = "";
+    private int chunkStart;
+
+    RopeCharStream(Rope rope) {
+        this.rope = rope;
+        this.size = rope.length();
+    }
+
+    private int charAt(int offset) {
+        if (offset < chunkStart || offset >= chunkStart + chunk.length()) {
+            leafStart[0] = 0;
+            chunk = rope.leafAt(offset, leafStart).text;
+            chunkStart = leafStart[0];
+        }
+        return chunk.charAt(offset - chunkStart);
+    }
+
+    @Override
+    public void consume() {
+        if (index >= size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        index++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+        int offset = i > 0 ? index + i - 1 : index + i;
+        if (offset < 0 || offset >= size) {
+            return IntStream.EOF;
+        }
+        return charAt(offset);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.index = Math.max(0, Math.min(index, size));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return IntStream.UNKNOWN_SOURCE_NAME;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = Math.max(interval.a, 0);
+        int stop = Math.min(interval.b, size - 1);
+        if (start > stop) {
+            return "";
+        }
+        return rope.substring(start, stop + 1);
+    }
+
+    @Override
+    public String toString() {
+        return rope.toString();
+    }
+}
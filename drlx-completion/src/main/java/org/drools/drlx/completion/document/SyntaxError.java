@@ -0,0 +1,13 @@
+package org.drools.drlx.completion.document;
+
+/**
+ * A syntax error reported by the DRLX lexer or parser while building a
+ * {@link DocumentSnapshot}.
+ *
+ * <p>{@code line} is 1-based and {@code charPositionInLine} is 0-based, as
+ * reported by ANTLR. {@code startIndex}/{@code stopIndex} are the character
+ * offsets of the offending token, or {@code -1} when the error was not
+ * attached to a token (e.g. a lexer error).
+ */
+public record SyntaxError(int line, int charPositionInLine, int startIndex, int stopIndex, String message) {
+}
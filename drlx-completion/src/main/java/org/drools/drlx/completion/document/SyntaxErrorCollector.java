@@ -0,0 +1,34 @@
+package org.drools.drlx.completion.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.LexerNoViableAltException;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+
+public class SyntaxErrorCollector extends BaseErrorListener {
+
+    private final List<SyntaxError> errors = new ArrayList<>();
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                            int line, int charPositionInLine, String msg, RecognitionException e) {
+        int startIndex = -1;
+        int stopIndex = -1;
+        if (offendingSymbol instanceof Token token) {
+            startIndex = token.getStartIndex();
+            stopIndex = token.getStopIndex();
+        } else if (e instanceof LexerNoViableAltException lexerError) {
+            startIndex = lexerError.getStartIndex();
+            stopIndex = lexerError.getStartIndex();
+        }
+        errors.add(new SyntaxError(line, charPositionInLine, startIndex, stopIndex, msg));
+    }
+
+    public List<SyntaxError> errors() {
+        return List.copyOf(errors);
+    }
+}
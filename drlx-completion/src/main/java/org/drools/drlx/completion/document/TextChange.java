@@ -0,0 +1,27 @@
+package org.drools.drlx.completion.document;
+
+/**
+ * A ranged edit of a document: the characters in {@code [start, oldEnd)} are
+ * replaced by {@code text}. Offsets are UTF-16 code units, as in LSP.
+ */
+public record TextChange(int start, int oldEnd, String text) {
+
+    public int newEnd() {
+        return start + text.length();
+    }
+
+    /**
+     * Difference in document length caused by this change.
+     */
+    public int delta() {
+        return text.length() - (oldEnd - start);
+    }
+
+    public String apply(String document) {
+        return document.substring(0, start) + text + document.substring(oldEnd);
+    }
+
+    public Rope apply(Rope document) {
+        return document.replace(start, oldEnd, text);
+    }
+}
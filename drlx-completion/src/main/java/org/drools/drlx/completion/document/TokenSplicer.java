@@ -0,0 +1,206 @@
+package org.drools.drlx.completion.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+import org.drools.drlx.parser.DrlxLexer;
+
+/**
+ * Relexes only the part of a token list damaged by a {@link TextChange}.
+ *
+ * <p>Lexing restarts one token before the first token touched by the edit (the
+ * extra token covers lexer lookahead, e.g. an identifier growing because a
+ * character was typed right after it) and stops as soon as the new token stream
+ * lines up again with an old token past the edit: same type, channel and length
+ * at the same shifted offset. Tokens before the window are reused as they are;
+ * tokens after it are copied with their offsets, lines and columns shifted, which
+ * is plain arithmetic and does not run the lexer.
+ */
+public class TokenSplicer {
+
+    private TokenSplicer() {
+    }
+
+    /**
+     * The result of a splice: the new token list and how the unchanged tail moved.
+     */
+    public static class Splice {
+
+        private final List<Token> tokens;
+        private final CompactTokenBuffer buffer;
+        private final int windowStart;
+        private final int oldWindowEnd;
+        private final int charDelta;
+        private final int syncLine;
+        private final int lineDelta;
+        private final int columnDelta;
+
+        private Splice(List<Token> tokens, CompactTokenBuffer buffer, Window window) {
+            this.tokens = tokens;
+            this.buffer = buffer;
+            this.windowStart = window.windowStart();
+            this.oldWindowEnd = window.oldWindowEnd();
+            this.charDelta = window.charDelta();
+            this.syncLine = window.syncLine();
+            this.lineDelta = window.lineDelta();
+            this.columnDelta = window.columnDelta();
+        }
+
+        public List<Token> tokens() {
+            return tokens;
+        }
+
+        /**
+         * The new tokens when spliced from compact tokens, else {@code null}.
+         */
+        CompactTokenBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * Offset where relexing started; identical in the old and the new text.
+         */
+        public int windowStart() {
+            return windowStart;
+        }
+
+        /**
+         * Offset, in the old text, of the first token reused after the window.
+         */
+        public int oldWindowEnd() {
+            return oldWindowEnd;
+        }
+
+        /**
+         * Maps a lexer error of the old text to the new text, or returns {@code null}
+         * if it lies inside the relexed window and was therefore reported again.
+         */
+        SyntaxError shift(SyntaxError error) {
+            if (error.startIndex() < windowStart) {
+                return error;
+            }
+            if (error.startIndex() < oldWindowEnd) {
+                return null;
+            }
+            int column = error.line() == syncLine ? error.charPositionInLine() + columnDelta : error.charPositionInLine();
+            return new SyntaxError(error.line() + lineDelta, column,
+                    error.startIndex() + charDelta, error.stopIndex() + charDelta, error.message());
+        }
+    }
+
+    public static Splice splice(List<Token> oldTokens, CharStream newInput, TextChange change, ANTLRErrorListener errorListener) {
+        Window window = relex(TokenTable.of(oldTokens), newInput, change, errorListener);
+        List<Token> tokens = new ArrayList<>(window.restart() + window.tokens().size() + oldTokens.size() - window.resume());
+        tokens.addAll(oldTokens.subList(0, window.restart()));
+        tokens.addAll(window.tokens());
+        Pair<TokenSource, CharStream> source = new Pair<>(window.lexer(), newInput);
+        for (int i = window.resume(); i < oldTokens.size(); i++) {
+            tokens.add(shift(oldTokens.get(i), source, window.charDelta(), window.syncLine(),
+                    window.lineDelta(), window.columnDelta()));
+        }
+        return new Splice(tokens, null, window);
+    }
+
+    /**
+     * As {@link #splice(List, CharStream, TextChange, ANTLRErrorListener)}, from and
+     * into compact tokens: only the relexed window is materialized, the tokens around
+     * it are copied between the buffers' arrays.
+     */
+    static Splice splice(CompactTokenBuffer oldTokens, Rope newText, TextChange change, ANTLRErrorListener errorListener) {
+        Window window = relex(oldTokens, newText.charStream(), change, errorListener);
+        CompactTokenBuffer buffer = CompactTokenBuffer.splice(oldTokens, window.restart(), window.tokens(),
+                window.resume(), newText, window.charDelta(), window.syncLine(), window.lineDelta(), window.columnDelta());
+        return new Splice(buffer.asList(), buffer, window);
+    }
+
+    /**
+     * The relexed tokens, between old tokens {@code [0, restart)} kept as they are and
+     * old tokens {@code [resume, size)} to shift.
+     */
+    private record Window(int restart, List<Token> tokens, int resume, DrlxLexer lexer,
+                          int windowStart, int oldWindowEnd, int charDelta,
+                          int syncLine, int lineDelta, int columnDelta) {
+    }
+
+    private static Window relex(TokenTable oldTokens, CharStream newInput, TextChange change, ANTLRErrorListener errorListener) {
+        DrlxLexer lexer = Recognizers.lexer(newInput);
+        lexer.addErrorListener(errorListener);
+
+        String[] modes = lexer.getModeNames();
+        boolean resumable = modes == null || modes.length <= 1;
+        int restart = resumable ? restartIndex(oldTokens, change.start()) : 0;
+
+        int windowStart = oldTokens.startIndex(restart);
+        newInput.seek(windowStart);
+        lexer.setLine(oldTokens.line(restart));
+        lexer.setCharPositionInLine(oldTokens.charPositionInLine(restart));
+
+        List<Token> tokens = new ArrayList<>();
+        int charDelta = change.delta();
+        int candidate = restart;
+        while (true) {
+            Token token = lexer.nextToken();
+            tokens.add(token);
+            if (token.getType() == Token.EOF) {
+                int oldEof = oldTokens.size() - 1;
+                return new Window(restart, tokens, oldTokens.size(), lexer, windowStart,
+                        oldTokens.startIndex(oldEof) + 1, charDelta, oldTokens.line(oldEof),
+                        token.getLine() - oldTokens.line(oldEof), 0);
+            }
+            if (!resumable || token.getStartIndex() < change.newEnd()) {
+                continue;
+            }
+
+            int oldStart = token.getStartIndex() - charDelta;
+            while (candidate < oldTokens.size() && oldTokens.startIndex(candidate) < oldStart) {
+                candidate++;
+            }
+            if (candidate < oldTokens.size() && isSameToken(oldTokens, candidate, token, oldStart)) {
+                int syncLine = oldTokens.line(candidate);
+                return new Window(restart, tokens, candidate + 1, lexer, windowStart, oldStart, charDelta,
+                        syncLine, token.getLine() - syncLine,
+                        token.getCharPositionInLine() - oldTokens.charPositionInLine(candidate));
+            }
+        }
+    }
+
+    private static int restartIndex(TokenTable tokens, int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        int lastBefore = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (tokens.startIndex(mid) < offset) {
+                lastBefore = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return Math.max(0, lastBefore - 1);
+    }
+
+    private static boolean isSameToken(TokenTable old, int index, Token token, int oldStart) {
+        return old.startIndex(index) == oldStart
+                && old.type(index) == token.getType()
+                && old.channel(index) == token.getChannel()
+                && old.stopIndex(index) - old.startIndex(index) == token.getStopIndex() - token.getStartIndex();
+    }
+
+    private static Token shift(Token old, Pair<TokenSource, CharStream> source,
+                               int charDelta, int syncLine, int lineDelta, int columnDelta) {
+        CommonToken token = new CommonToken(source, old.getType(), old.getChannel(),
+                old.getStartIndex() + charDelta, old.getStopIndex() + charDelta);
+        token.setLine(old.getLine() + lineDelta);
+        token.setCharPositionInLine(old.getLine() == syncLine
+                ? old.getCharPositionInLine() + columnDelta
+                : old.getCharPositionInLine());
+        return token;
+    }
+}
@@ -0,0 +1,69 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+
+/**
+ * The fields of a document's tokens by index, for scans over many tokens: a
+ * {@link CompactTokenBuffer} answers them from its arrays, where going through
+ * {@link DocumentSnapshot#tokens()} would materialize a token per index.
+ */
+public interface TokenTable {
+
+    int size();
+
+    int type(int index);
+
+    int channel(int index);
+
+    int startIndex(int index);
+
+    int stopIndex(int index);
+
+    int line(int index);
+
+    int charPositionInLine(int index);
+
+    /**
+     * The fields of {@code tokens}, read from the tokens themselves.
+     */
+    static TokenTable of(List<? extends Token> tokens) {
+        return new TokenTable() {
+            @Override
+            public int size() {
+                return tokens.size();
+            }
+
+            @Override
+            public int type(int index) {
+                return tokens.get(index).getType();
+            }
+
+            @Override
+            public int channel(int index) {
+                return tokens.get(index).getChannel();
+            }
+
+            @Override
+            public int startIndex(int index) {
+                return tokens.get(index).getStartIndex();
+            }
+
+            @Override
+            public int stopIndex(int index) {
+                return tokens.get(index).getStopIndex();
+            }
+
+            @Override
+            public int line(int index) {
+                return tokens.get(index).getLine();
+            }
+
+            @Override
+            public int charPositionInLine(int index) {
+                return tokens.get(index).getCharPositionInLine();
+            }
+        };
+    }
+}
@@ -0,0 +1,318 @@
+package org.drools.drlx.completion.semantic;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.resolution.types.parametrization.ResolvedTypeParametersMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The bean properties of one type, as OOPath chunks and constraints see them.
+ *
+ * <p>A property comes from a no-argument {@code getX()}/{@code isX()} method of the
+ * type, or from a field without such a getter; getter properties come first, in
+ * declaration order. Its type is the getter's return type, or the field's when there
+ * is no getter or its return type can't be resolved, with the type arguments of the
+ * type substituted: {@code T getContent()} is a {@code Line} property of {@code Box<Line>}.
+ *
+ * <p>Building one resolves the return type of every getter and the type of every
+ * field through JavaParser's reflection model, so models are kept per parameterized
+ * type by {@link WorkspaceSemanticModel#beanModel}. A non-generic class has nothing
+ * to substitute and is read with {@code java.lang.reflect} instead, see
+ * {@link #of(Class, TypeSolver)}.
+ */
+public final class BeanModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanModel.class);
+
+    static final BeanModel EMPTY = new BeanModel(Map.of());
+
+    /**
+     * One property. Its type can be materialized on first use, see {@link #of(Class, TypeSolver)}.
+     */
+    public static final class Property {
+
+        private final String name;
+        private final boolean navigable;
+        private Supplier<SemanticType> typeSource;
+        private Supplier<SemanticType> elementTypeSource;
+        private SemanticType type;
+        private SemanticType elementType;
+
+        private Property(String name, SemanticType type, boolean navigable, SemanticType elementType) {
+            this.name = name;
+            this.type = type;
+            this.navigable = navigable;
+            this.elementType = elementType;
+        }
+
+        private Property(String name, boolean navigable,
+                         Supplier<SemanticType> typeSource, Supplier<SemanticType> elementTypeSource) {
+            this.name = name;
+            this.navigable = navigable;
+            this.typeSource = typeSource;
+            this.elementTypeSource = elementTypeSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * {@code null} if it could not be resolved.
+         */
+        public synchronized SemanticType type() {
+            if (typeSource != null) {
+                type = typeSource.get();
+                typeSource = null;
+            }
+            return type;
+        }
+
+        /**
+         * Whether an OOPath can continue through the property: a type outside
+         * {@code java.lang}, or a collection of one.
+         */
+        public boolean navigable() {
+            return navigable;
+        }
+
+        /**
+         * The element type of a collection property, or {@code null}.
+         */
+        public synchronized SemanticType elementType() {
+            if (elementTypeSource != null) {
+                elementType = elementTypeSource.get();
+                elementTypeSource = null;
+            }
+            return elementType;
+        }
+
+        /**
+         * The type an OOPath chunk on this property iterates: the element type of a
+         * collection, the property's type otherwise.
+         */
+        public SemanticType chunkType() {
+            SemanticType element = elementType();
+            return element != null ? element : type();
+        }
+    }
+
+    private final Map<String, Property> properties;
+
+    private BeanModel(Map<String, Property> properties) {
+        this.properties = properties;
+    }
+
+    static BeanModel of(ResolvedReferenceType refType, ResolvedReferenceTypeDeclaration typeDecl) {
+        Map<String, SemanticType> types = new LinkedHashMap<>();
+        try {
+            ResolvedTypeParametersMap typeArguments = refType.typeParametersMap();
+            for (var method : typeDecl.getDeclaredMethods()) {
+                if (method.getNumberOfParams() != 0) continue;
+                String propName = propertyName(method.getName());
+                if (propName == null || types.containsKey(propName)) continue;
+                SemanticType type = null;
+                try {
+                    type = SemanticType.value(typeArguments.replaceAll(method.getReturnType()));
+                } catch (Exception e) {
+                    logger.debug("Cannot resolve method return type '{}': {}", method.getName(), e.getMessage());
+                }
+                types.put(propName, type);
+            }
+            for (var field : typeDecl.getAllFields()) {
+                if (types.get(field.getName()) != null) continue;
+                try {
+                    types.put(field.getName(), SemanticType.value(typeArguments.replaceAll(field.getType())));
+                } catch (Exception e) {
+                    logger.debug("Cannot resolve field type '{}': {}", field.getName(), e.getMessage());
+                    types.putIfAbsent(field.getName(), null);
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Cannot collect properties of '{}': {}", typeDecl.getQualifiedName(), e.getMessage());
+        }
+
+        Map<String, Property> properties = new LinkedHashMap<>();
+        for (Map.Entry<String, SemanticType> entry : types.entrySet()) {
+            properties.put(entry.getKey(), property(entry.getKey(), entry.getValue()));
+        }
+        return new BeanModel(Collections.unmodifiableMap(properties));
+    }
+
+    /**
+     * The model of a non-generic class read through {@code java.lang.reflect}, which
+     * is much cheaper than JavaParser's reflection model; the JavaParser type of a
+     * property is only materialized through {@code solver} when asked for.
+     */
+    static BeanModel of(Class<?> clazz, TypeSolver solver) {
+        Map<String, Type> types = new LinkedHashMap<>();
+        try {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getParameterCount() != 0 || method.isSynthetic()) continue;
+                String propName = propertyName(method.getName());
+                if (propName == null || types.containsKey(propName)) continue;
+                types.put(propName, method.getGenericReturnType());
+            }
+            collectFields(clazz, types, new HashSet<>());
+        } catch (LinkageError | SecurityException e) {
+            logger.debug("Cannot collect properties of '{}': {}", clazz.getName(), e.getMessage());
+        }
+
+        Map<String, Property> properties = new LinkedHashMap<>();
+        for (Map.Entry<String, Type> entry : types.entrySet()) {
+            properties.put(entry.getKey(), property(entry.getKey(), entry.getValue(), solver));
+        }
+        return new BeanModel(Collections.unmodifiableMap(properties));
+    }
+
+    private static void collectFields(Class<?> clazz, Map<String, Type> types, Set<Class<?>> seen) {
+        if (clazz == null || !seen.add(clazz)) return;
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!field.isSynthetic()) {
+                types.putIfAbsent(field.getName(), field.getGenericType());
+            }
+        }
+        collectFields(clazz.getSuperclass(), types, seen);
+        for (Class<?> implemented : clazz.getInterfaces()) {
+            collectFields(implemented, types, seen);
+        }
+    }
+
+    private static Property property(String name, Type type, TypeSolver solver) {
+        Class<?> raw = ReflectiveTypes.rawClass(type);
+        Type element = null;
+        boolean navigable = false;
+        if (raw != null && !raw.isPrimitive() && !raw.isArray()) {
+            String qname = ReflectiveTypes.describe(raw);
+            if (isCollectionType(qname)) {
+                Type argument = ReflectiveTypes.firstTypeArgument(type);
+                Class<?> argumentClass = argument != null ? ReflectiveTypes.rawClass(argument) : null;
+                if (argumentClass != null && !argumentClass.isArray()) {
+                    element = argument;
+                    navigable = !qname.startsWith("java.lang.")
+                            && !ReflectiveTypes.describe(argumentClass).startsWith("java.lang.");
+                }
+            } else {
+                navigable = !qname.startsWith("java.lang.");
+            }
+        }
+        Type elementType = element;
+        return new Property(name, navigable, () -> materialize(name, type, solver),
+                elementType != null ? () -> materialize(name, elementType, solver) : null);
+    }
+
+    private static SemanticType materialize(String name, Type type, TypeSolver solver) {
+        try {
+            ResolvedType resolved = ReflectiveTypes.resolve(type, solver);
+            return resolved != null ? SemanticType.value(resolved) : null;
+        } catch (Exception e) {
+            logger.debug("Cannot resolve type of property '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Property property(String name, SemanticType type) {
+        if (type == null) {
+            return new Property(name, null, false, null);
+        }
+        try {
+            return new Property(name, type, isNavigableType(type), collectionElementType(type));
+        } catch (Exception e) {
+            logger.debug("Cannot inspect type of property '{}': {}", name, e.getMessage());
+            return new Property(name, type, false, null);
+        }
+    }
+
+    private static String propertyName(String methodName) {
+        if (methodName.startsWith("get") && methodName.length() > 3) {
+            return Character.toLowerCase(methodName.charAt(3)) + methodName.substring(4);
+        }
+        if (methodName.startsWith("is") && methodName.length() > 2) {
+            return Character.toLowerCase(methodName.charAt(2)) + methodName.substring(3);
+        }
+        return null;
+    }
+
+    public Collection<Property> properties() {
+        return properties.values();
+    }
+
+    /**
+     * The property called {@code name}, or {@code null}.
+     */
+    public Property property(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * The names of all properties, in order, as a new list.
+     */
+    public List<String> names() {
+        return new ArrayList<>(properties.keySet());
+    }
+
+    /**
+     * The names of the properties an OOPath can continue through, in order, as a new list.
+     */
+    public List<String> navigableNames() {
+        List<String> names = new ArrayList<>();
+        for (Property property : properties.values()) {
+            if (property.navigable()) {
+                names.add(property.name());
+            }
+        }
+        return names;
+    }
+
+    private static boolean isNavigableType(SemanticType type) {
+        if (!type.isReferenceType()) return false;
+        var refType = type.resolvedType().asReferenceType();
+        String qname = refType.getQualifiedName();
+        if (qname.startsWith("java.lang.")) return false;
+        if (isCollectionType(qname)) {
+            var typeArgs = refType.typeParametersValues();
+            if (!typeArgs.isEmpty() && typeArgs.get(0).isReferenceType()) {
+                String elementQname = typeArgs.get(0).asReferenceType().getQualifiedName();
+                return !elementQname.startsWith("java.lang.");
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static SemanticType collectionElementType(SemanticType type) {
+        if (!type.isReferenceType()) return null;
+        var refType = type.resolvedType().asReferenceType();
+        if (!isCollectionType(refType.getQualifiedName())) return null;
+        var typeArgs = refType.typeParametersValues();
+        if (typeArgs.isEmpty()) return null;
+        var elementType = typeArgs.get(0);
+        if (elementType.isReferenceType()) {
+            return SemanticType.value(elementType);
+        }
+        return null;
+    }
+
+    private static boolean isCollectionType(String qname) {
+        return qname.equals("java.util.List")
+                || qname.equals("java.util.Set")
+                || qname.equals("java.util.Collection")
+                || qname.equals("java.lang.Iterable");
+    }
+}
@@ -0,0 +1,133 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.CompactTokenBuffer;
+import org.drools.drlx.completion.document.CompactTokenStream;
+
+/**
+ * The chain of rule contexts from the token at the caret up to the root, computed
+ * once per completion request.
+ *
+ * <p>The chain is anchored on the last default-channel token before the caret:
+ * the one being typed, or the one the caret follows. It is found by descending
+ * from the root through the child whose token range holds that token, so finding
+ * it costs the depth of the tree rather than a walk of it. {@link #nearest} then
+ * answers "which OOPath / block / rule item is the caret in" with a map lookup.
+ */
+public final class CaretPath {
+
+    private static final CaretPath EMPTY = new CaretPath(-1, List.of());
+
+    private final int anchorTokenIndex;
+    private final List<ParserRuleContext> ancestors;
+    private final Map<Class<?>, ParserRuleContext> nearest = new HashMap<>();
+
+    private CaretPath(int anchorTokenIndex, List<ParserRuleContext> ancestors) {
+        this.anchorTokenIndex = anchorTokenIndex;
+        this.ancestors = ancestors;
+        for (ParserRuleContext ancestor : ancestors) {
+            nearest.putIfAbsent(ancestor.getClass(), ancestor);
+        }
+    }
+
+    public static CaretPath of(ParseTree tree, TokenStream tokens, int caretTokenIndex) {
+        int anchor = lastOnDefaultChannel(tokens, Math.min(caretTokenIndex, tokens.size()) - 1);
+        if (anchor < 0 || !(tree instanceof ParserRuleContext root)) {
+            return EMPTY;
+        }
+
+        List<ParserRuleContext> path = new ArrayList<>();
+        ParserRuleContext node = root;
+        while (node != null && contains(node.getSourceInterval(), anchor)) {
+            path.add(node);
+            node = childContaining(node, anchor);
+        }
+        Collections.reverse(path);
+        return new CaretPath(anchor, Collections.unmodifiableList(path));
+    }
+
+    /**
+     * The index of the last default-channel token at or before {@code tokenIndex}, or {@code -1}.
+     */
+    static int lastOnDefaultChannel(TokenStream tokens, int tokenIndex) {
+        int index = tokenIndex;
+        if (tokens instanceof CompactTokenStream compact) {
+            // Without materializing the tokens
+            CompactTokenBuffer buffer = compact.buffer();
+            while (index >= 0 && buffer.channel(index) != Token.DEFAULT_CHANNEL) {
+                index--;
+            }
+        } else {
+            while (index >= 0 && tokens.get(index).getChannel() != Token.DEFAULT_CHANNEL) {
+                index--;
+            }
+        }
+        return index;
+    }
+
+    private static ParserRuleContext childContaining(ParserRuleContext node, int tokenIndex) {
+        if (node.children == null) {
+            return null;
+        }
+        // Children are in token order: binary search, then a scan in case conjured
+        // tokens (index -1) threw it off
+        int low = 0;
+        int high = node.children.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Interval interval = node.children.get(mid).getSourceInterval();
+            if (interval.a > tokenIndex) {
+                high = mid - 1;
+            } else if (interval.b < tokenIndex) {
+                low = mid + 1;
+            } else {
+                return node.children.get(mid) instanceof ParserRuleContext child ? child : null;
+            }
+        }
+        for (ParseTree child : node.children) {
+            if (child instanceof ParserRuleContext context && contains(context.getSourceInterval(), tokenIndex)) {
+                return context;
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(Interval interval, int tokenIndex) {
+        return interval.a <= tokenIndex && tokenIndex <= interval.b;
+    }
+
+    /**
+     * The token the path is anchored on; {@code -1} if there is none before the caret.
+     */
+    public int anchorTokenIndex() {
+        return anchorTokenIndex;
+    }
+
+    /**
+     * The contexts holding the anchor token, innermost first.
+     */
+    public List<ParserRuleContext> ancestors() {
+        return ancestors;
+    }
+
+    /**
+     * The innermost context of exactly {@code type} holding the anchor token, or {@code null}.
+     */
+    public <T extends ParserRuleContext> T nearest(Class<T> type) {
+        return type.cast(nearest.get(type));
+    }
+
+    public boolean isEmpty() {
+        return ancestors.isEmpty();
+    }
+}
@@ -3,7 +3,6 @@ package org.drools.drlx.completion.semantic;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -11,25 +10,16 @@ import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
 import com.github.javaparser.resolution.model.typesystem.ReferenceTypeImpl;
 import com.github.javaparser.resolution.types.ResolvedArrayType;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.DocumentSummary;
 import org.drools.drlx.parser.DrlxParser;
-import org.drools.drlx.parser.DrlxParser.AccumulateItemContext;
-import org.drools.drlx.parser.DrlxParser.BlockContext;
-import org.drools.drlx.parser.DrlxParser.BlockStatementContext;
 import org.drools.drlx.parser.DrlxParser.BoundOopathContext;
-import org.drools.drlx.parser.DrlxParser.DrlxCompilationUnitContext;
-import org.drools.drlx.parser.DrlxParser.ImportDeclarationContext;
-import org.drools.drlx.parser.DrlxParser.LocalVariableDeclarationContext;
 import org.drools.drlx.parser.DrlxParser.OopathChunkContext;
 import org.drools.drlx.parser.DrlxParser.OopathExpressionContext;
 import org.drools.drlx.parser.DrlxParser.OopathRootContext;
-import org.drools.drlx.parser.DrlxParser.RuleConsequenceContext;
 import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
-import org.drools.drlx.parser.DrlxParser.RuleParameterContext;
-import org.drools.drlx.parser.DrlxParser.RuleParameterListContext;
-import org.drools.drlx.parser.DrlxParser.StatementContext;
-import org.drools.drlx.parser.DrlxParser.UnitDeclarationContext;
-import org.drools.drlx.parser.DrlxParser.VariableDeclaratorContext;
+import org.drools.drlx.parser.DrlxParser.RuleItemContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,17 +32,17 @@ public class CompletionContext {
     private final ParseTree tree;
     private final int caretTokenIndex;
 
-    private String unitClassName;
-    private boolean unitClassNameResolved;
-    private Set<String> imports;
-    private List<String> entryPointNames;
+    private final DocumentSummary summary;
+    private CaretPath caretPath;
     private final List<String> diagnostics = new ArrayList<>();
 
-    CompletionContext(WorkspaceSemanticModel model, DrlxParser parser, ParseTree tree, int caretTokenIndex) {
+    CompletionContext(WorkspaceSemanticModel model, DrlxParser parser, ParseTree tree, int caretTokenIndex,
+                      DocumentSummary summary) {
         this.model = model;
         this.parser = parser;
         this.tree = tree;
         this.caretTokenIndex = caretTokenIndex;
+        this.summary = summary;
     }
 
     public TypeSolver typeSolver() {
@@ -75,47 +65,33 @@ public class CompletionContext {
         return diagnostics;
     }
 
-    public String unitClassName() {
-        if (!unitClassNameResolved) {
-            unitClassNameResolved = true;
-            DrlxCompilationUnitContext cu = findDrlxCompilationUnit();
-            if (cu != null) {
-                UnitDeclarationContext unitDecl = cu.unitDeclaration();
-                if (unitDecl != null && unitDecl.qualifiedName() != null) {
-                    unitClassName = unitDecl.qualifiedName().getText();
-                }
-            }
+    /**
+     * Imports, unit and rules of the parsed document, shared with other contexts on it.
+     */
+    public DocumentSummary summary() {
+        return summary;
+    }
+
+    /**
+     * The rule contexts around the caret, computed on first use.
+     */
+    public CaretPath caretPath() {
+        if (caretPath == null) {
+            caretPath = CaretPath.of(tree, parser.getTokenStream(), caretTokenIndex);
         }
-        return unitClassName;
+        return caretPath;
+    }
+
+    public String unitClassName() {
+        return summary.unitClassName();
     }
 
     public Set<String> imports() {
-        if (imports == null) {
-            imports = new LinkedHashSet<>();
-            DrlxCompilationUnitContext cu = findDrlxCompilationUnit();
-            if (cu != null) {
-                for (ImportDeclarationContext imp : cu.importDeclaration()) {
-                    if (imp.qualifiedName() != null) {
-                        imports.add(imp.qualifiedName().getText());
-                    }
-                }
-            }
-        }
-        return imports;
+        return summary.imports();
     }
 
     public List<String> entryPointNames() {
-        if (entryPointNames == null) {
-            Set<String> seen = new LinkedHashSet<>();
-            DrlxCompilationUnitContext cu = findDrlxCompilationUnit();
-            if (cu != null) {
-                for (RuleDeclarationContext rule : cu.ruleDeclaration()) {
-                    collectEntryPoints(rule, seen);
-                }
-            }
-            entryPointNames = new ArrayList<>(seen);
-        }
-        return entryPointNames;
+        return summary.entryPointNames();
     }
 
     public String findEnclosingPatternType() {
@@ -127,118 +103,24 @@ public class CompletionContext {
     }
 
     public VisibleSymbols buildVisibleSymbols() {
-        DrlxCompilationUnitContext cu = findDrlxCompilationUnit();
-        if (cu == null) {
-            return VisibleSymbols.empty();
-        }
-
-        RuleDeclarationContext enclosingRule = findEnclosingRule(cu);
+        RuleDeclarationContext enclosingRule = summary.enclosingRule(caretTokenIndex);
         if (enclosingRule == null) {
             return VisibleSymbols.empty();
         }
 
         VisibleSymbols.Builder builder = new VisibleSymbols.Builder();
-        extractRuleParameters(enclosingRule, builder);
-        extractOopathBindings(enclosingRule, builder);
-        extractLocalVariables(enclosingRule, builder);
+        model.scopeTable(summary, parser.getTokenStream(), enclosingRule)
+                .addVisible(caretTokenIndex - enclosingRule.getStart().getTokenIndex(), this, builder);
         extractOopathConstraintProperties(enclosingRule, builder);
         return builder.build();
     }
 
-    private RuleDeclarationContext findEnclosingRule(DrlxCompilationUnitContext cu) {
-        RuleDeclarationContext lastCandidate = null;
-        for (RuleDeclarationContext rule : cu.ruleDeclaration()) {
-            if (rule.getStart() != null) {
-                int ruleStart = rule.getStart().getTokenIndex();
-                int ruleStop = rule.getStop() != null ? rule.getStop().getTokenIndex() : Integer.MAX_VALUE;
-                if (ruleStart <= caretTokenIndex && ruleStop >= caretTokenIndex) {
-                    return rule;
-                }
-                if (ruleStart <= caretTokenIndex) {
-                    lastCandidate = rule;
-                }
-            }
-        }
-        return lastCandidate;
-    }
-
-    private void extractRuleParameters(RuleDeclarationContext rule, VisibleSymbols.Builder builder) {
-        RuleParameterListContext paramList = rule.ruleParameterList();
-        if (paramList == null) return;
-        for (RuleParameterContext param : paramList.ruleParameter()) {
-            if (param.getStart().getTokenIndex() >= caretTokenIndex) continue;
-            String typeName = param.typeType().getText();
-            String varName = param.identifier().getText();
-            SemanticType st = resolveTypeToSemanticType(typeName);
-            if (st != null) builder.add(varName, st);
-        }
-    }
-
-    private void extractOopathBindings(RuleDeclarationContext rule, VisibleSymbols.Builder builder) {
-        if (rule.ruleBody() == null) return;
-        for (var ruleItem : rule.ruleBody().ruleItem()) {
-            if (ruleItem.getStart() != null && ruleItem.getStart().getTokenIndex() >= caretTokenIndex) continue;
-            collectBoundOopathFromTree(ruleItem, builder);
-        }
-    }
-
-    private void collectBoundOopathFromTree(ParseTree node, VisibleSymbols.Builder builder) {
-        if (node instanceof BoundOopathContext bound) {
-            if (bound.getStart().getTokenIndex() >= caretTokenIndex) return;
-            if (bound.identifier().size() >= 2) {
-                String typeName = bound.identifier(0).getText();
-                String bindName = bound.identifier(1).getText();
-                if (!"var".equals(typeName)) {
-                    SemanticType st = resolveTypeToSemanticType(typeName);
-                    if (st != null) builder.add(bindName, st);
-                } else {
-                    SemanticType inferred = inferVarBindingType(bound);
-                    if (inferred != null) builder.add(bindName, inferred);
-                }
-            }
-            return;
-        }
-        if (node instanceof AccumulateItemContext accItem) {
-            if (accItem.getStart().getTokenIndex() >= caretTokenIndex) return;
-            String bindName = accItem.identifier().getText();
-            if (accItem.typeType() != null) {
-                SemanticType st = resolveTypeToSemanticType(accItem.typeType().getText());
-                if (st != null) builder.add(bindName, st);
-            } else if (accItem.VAR() != null) {
-                SemanticType inferred = inferAccumulateResultType(accItem);
-                if (inferred != null) builder.add(bindName, inferred);
-            }
-            return;
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            collectBoundOopathFromTree(node.getChild(i), builder);
-        }
-    }
-
-    private SemanticType inferVarBindingType(BoundOopathContext bound) {
-        var oopathExpr = bound.oopathExpression();
-        if (oopathExpr == null) return null;
-        OopathRootContext root = oopathExpr.oopathRoot();
-        if (root == null || root.identifier(0) == null) return null;
-        String entryPointName = root.identifier(0).getText();
-        return resolveEntryPointType(entryPointName);
-    }
-
-    private SemanticType inferAccumulateResultType(AccumulateItemContext accItem) {
-        var accCall = accItem.accumulateCall();
-        if (accCall == null || accCall.qualifiedName() == null) return null;
-        String funcName = accCall.qualifiedName().getText();
-        String inferredType = switch (funcName) {
-            case "sum", "avg", "min", "max" -> "Number";
-            case "count" -> "Long";
-            case "collectList" -> "java.util.List";
-            case "collectSet" -> "java.util.Set";
-            default -> "Object";
-        };
-        return resolveTypeToSemanticType(inferredType);
+    SemanticType resolveEntryPointType(String entryPointName) {
+        return model.typeResolutions(summary).entryPoint(entryPointName, this,
+                () -> doResolveEntryPointType(entryPointName));
     }
 
-    SemanticType resolveEntryPointType(String entryPointName) {
+    private SemanticType doResolveEntryPointType(String entryPointName) {
         String unitClass = unitClassName();
         if (unitClass == null) return null;
         String unitFqcn = resolveToFqcn(unitClass);
@@ -294,36 +176,58 @@ public class CompletionContext {
     }
 
     public List<String> resolveOopathChunkCompletions() {
-        DrlxCompilationUnitContext cu = findDrlxCompilationUnit();
-        if (cu == null) return List.of();
-
-        RuleDeclarationContext enclosingRule = findEnclosingRule(cu);
-        if (enclosingRule == null || enclosingRule.ruleBody() == null) return List.of();
-
-        return findOopathChunkCompletionsInTree(enclosingRule.ruleBody());
+        OopathExpressionContext atCaret = oopathAtCaret();
+        if (atCaret == null) return List.of();
+        List<String> result = resolveOopathChunkProperties(atCaret);
+        return result != null ? result : List.of();
     }
 
     public List<String> resolveConstraintCompletions() {
-        DrlxCompilationUnitContext cu = findDrlxCompilationUnit();
-        if (cu == null) return List.of();
-
-        RuleDeclarationContext enclosingRule = findEnclosingRule(cu);
-        if (enclosingRule == null || enclosingRule.ruleBody() == null) return List.of();
-
-        return findConstraintCompletionsInTree(enclosingRule.ruleBody());
+        OopathExpressionContext atCaret = oopathAtCaret();
+        if (atCaret == null) return List.of();
+        List<String> result = resolveConstraintProperties(atCaret);
+        return result != null ? result : List.of();
+    }
+
+    /**
+     * The OOPath the caret is in, or {@code null}. Error recovery can leave the tokens
+     * before the caret outside the OOPath, so it is then looked up in the enclosing
+     * bound OOPath or rule item, or else in the item the anchor token directly follows.
+     * An item further back is another pattern, not the one being typed.
+     */
+    private OopathExpressionContext oopathAtCaret() {
+        CaretPath path = caretPath();
+        OopathExpressionContext atCaret = path.nearest(OopathExpressionContext.class);
+        if (atCaret != null) return atCaret;
+        BoundOopathContext bound = path.nearest(BoundOopathContext.class);
+        if (bound != null) return bound.oopathExpression();
+        RuleItemContext item = path.nearest(RuleItemContext.class);
+        if (item != null) return oopathIn(item);
+        if (path.isEmpty()) return null;
+
+        ParserRuleContext innermost = path.ancestors().get(0);
+        if (innermost.children == null) return null;
+        for (int i = innermost.children.size() - 1; i >= 0; i--) {
+            ParseTree child = innermost.children.get(i);
+            if (child instanceof ParserRuleContext sibling && sibling.getStop() != null
+                    && sibling.getStop().getTokenIndex() < path.anchorTokenIndex()) {
+                int previous = CaretPath.lastOnDefaultChannel(parser.getTokenStream(), path.anchorTokenIndex() - 1);
+                return sibling.getStop().getTokenIndex() == previous ? oopathIn(sibling) : null;
+            }
+        }
+        return null;
     }
 
-    private List<String> findConstraintCompletionsInTree(ParseTree node) {
-        if (node instanceof OopathExpressionContext oopathExpr) {
-            List<String> result = resolveConstraintProperties(oopathExpr);
-            if (result != null) return result;
-            return List.of();
-        }
+    /**
+     * The first OOPath in {@code node}, a single rule item or pattern.
+     */
+    private static OopathExpressionContext oopathIn(ParseTree node) {
+        if (node instanceof OopathExpressionContext oopathExpr) return oopathExpr;
         for (int i = 0; i < node.getChildCount(); i++) {
-            List<String> result = findConstraintCompletionsInTree(node.getChild(i));
-            if (!result.isEmpty()) return result;
+            OopathExpressionContext result = oopathIn(node.getChild(i));
+            if (result != null) return result;
         }
-        return List.of();
+        return null;
     }
 
     private List<String> resolveConstraintProperties(OopathExpressionContext oopathExpr) {
@@ -336,17 +240,14 @@ public class CompletionContext {
 
         for (OopathChunkContext chunk : oopathExpr.oopathChunk()) {
             String chunkName = chunk.identifier(0).getText();
-            SemanticType chunkType = resolvePropertyType(currentType, chunkName);
-            if (chunkType == null) return null;
-            SemanticType unwrapped = unwrapCollectionElementType(chunkType);
-            if (unwrapped != null) {
-                chunkType = unwrapped;
-            }
+            BeanModel.Property property = model.beanModel(currentType).property(chunkName);
+            if (property == null || property.type() == null) return null;
+            SemanticType chunkType = property.chunkType();
 
             int chunkStart = chunk.getStart().getTokenIndex();
             int chunkStop = chunk.getStop() != null ? chunk.getStop().getTokenIndex() : Integer.MAX_VALUE;
             if (chunkStart <= caretTokenIndex && chunkStop >= caretTokenIndex) {
-                List<String> props = collectAllProperties(chunkType);
+                List<String> props = model.beanModel(chunkType).names();
                 props.add("this");
                 return props;
             }
@@ -355,24 +256,11 @@ public class CompletionContext {
 
         // Site is CONSTRAINT_EXPRESSION so caret is inside a [...] bracket.
         // If no chunk matched, use currentType (root type or last walked chunk type).
-        List<String> props = collectAllProperties(currentType);
+        List<String> props = model.beanModel(currentType).names();
         props.add("this");
         return props;
     }
 
-    private List<String> findOopathChunkCompletionsInTree(ParseTree node) {
-        if (node instanceof OopathExpressionContext oopathExpr) {
-            List<String> result = resolveOopathChunkProperties(oopathExpr);
-            if (result != null) return result;
-            return List.of();
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            List<String> result = findOopathChunkCompletionsInTree(node.getChild(i));
-            if (!result.isEmpty()) return result;
-        }
-        return List.of();
-    }
-
     private List<String> resolveOopathChunkProperties(OopathExpressionContext oopathExpr) {
         OopathRootContext root = oopathExpr.oopathRoot();
         if (root == null || root.identifier(0) == null) return null;
@@ -387,148 +275,19 @@ public class CompletionContext {
             if (chunkStart >= caretTokenIndex) break;
 
             String chunkName = chunk.identifier(0).getText();
-            SemanticType chunkType = resolvePropertyType(currentType, chunkName);
-            if (chunkType == null) return null;
-            SemanticType unwrapped = unwrapCollectionElementType(chunkType);
-            if (unwrapped != null) {
-                currentType = unwrapped;
-            } else {
-                currentType = chunkType;
-            }
+            BeanModel.Property property = model.beanModel(currentType).property(chunkName);
+            if (property == null || property.type() == null) return null;
+            currentType = property.chunkType();
         }
 
-        return collectNavigableProperties(currentType);
-    }
-
-    private List<String> collectNavigableProperties(SemanticType ownerType) {
-        if (!ownerType.isReferenceType()) return List.of();
-        List<String> result = new ArrayList<>();
-        try {
-            var refType = ownerType.resolvedType().asReferenceType();
-            var typeDecl = refType.getTypeDeclaration().orElse(null);
-            if (typeDecl == null) return List.of();
-
-            Set<String> seen = new LinkedHashSet<>();
-            for (var method : typeDecl.getDeclaredMethods()) {
-                if (method.getNumberOfParams() != 0) continue;
-                String methodName = method.getName();
-                String propName = null;
-                if (methodName.startsWith("get") && methodName.length() > 3) {
-                    propName = Character.toLowerCase(methodName.charAt(3)) + methodName.substring(4);
-                } else if (methodName.startsWith("is") && methodName.length() > 2) {
-                    propName = Character.toLowerCase(methodName.charAt(2)) + methodName.substring(3);
-                }
-                if (propName != null && seen.add(propName)) {
-                    try {
-                        SemanticType propType = SemanticType.value(method.getReturnType());
-                        if (isNavigableType(propType)) {
-                            result.add(propName);
-                        }
-                    } catch (Exception e) {
-                        logger.debug("Cannot resolve method return type '{}': {}", methodName, e.getMessage());
-                    }
-                }
-            }
-            for (var field : typeDecl.getAllFields()) {
-                if (seen.add(field.getName())) {
-                    try {
-                        SemanticType fieldType = SemanticType.value(field.getType());
-                        if (isNavigableType(fieldType)) {
-                            result.add(field.getName());
-                        }
-                    } catch (Exception e) {
-                        logger.debug("Cannot resolve field type '{}': {}", field.getName(), e.getMessage());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Cannot collect navigable properties: {}", e.getMessage());
-        }
-        return result;
-    }
-
-    private List<String> collectAllProperties(SemanticType ownerType) {
-        if (!ownerType.isReferenceType()) return List.of();
-        List<String> result = new ArrayList<>();
-        try {
-            var refType = ownerType.resolvedType().asReferenceType();
-            var typeDecl = refType.getTypeDeclaration().orElse(null);
-            if (typeDecl == null) return List.of();
-
-            Set<String> seen = new LinkedHashSet<>();
-            for (var method : typeDecl.getDeclaredMethods()) {
-                if (method.getNumberOfParams() != 0) continue;
-                String methodName = method.getName();
-                String propName = null;
-                if (methodName.startsWith("get") && methodName.length() > 3) {
-                    propName = Character.toLowerCase(methodName.charAt(3)) + methodName.substring(4);
-                } else if (methodName.startsWith("is") && methodName.length() > 2) {
-                    propName = Character.toLowerCase(methodName.charAt(2)) + methodName.substring(3);
-                }
-                if (propName != null) {
-                    seen.add(propName);
-                    result.add(propName);
-                }
-            }
-            for (var field : typeDecl.getAllFields()) {
-                if (seen.add(field.getName())) {
-                    result.add(field.getName());
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Cannot collect properties: {}", e.getMessage());
-        }
-        return result;
-    }
-
-    private boolean isNavigableType(SemanticType type) {
-        if (!type.isReferenceType()) return false;
-        var refType = type.resolvedType().asReferenceType();
-        String qname = refType.getQualifiedName();
-        if (qname.startsWith("java.lang.")) return false;
-        if (isCollectionType(qname)) {
-            var typeArgs = refType.typeParametersValues();
-            if (!typeArgs.isEmpty() && typeArgs.get(0).isReferenceType()) {
-                String elementQname = typeArgs.get(0).asReferenceType().getQualifiedName();
-                return !elementQname.startsWith("java.lang.");
-            }
-            return false;
-        }
-        return true;
-    }
-
-    private SemanticType unwrapCollectionElementType(SemanticType type) {
-        if (!type.isReferenceType()) return null;
-        var refType = type.resolvedType().asReferenceType();
-        if (!isCollectionType(refType.getQualifiedName())) return null;
-        var typeArgs = refType.typeParametersValues();
-        if (typeArgs.isEmpty()) return null;
-        var elementType = typeArgs.get(0);
-        if (elementType.isReferenceType()) {
-            return SemanticType.value(elementType);
-        }
-        return null;
-    }
-
-    private static boolean isCollectionType(String qname) {
-        return qname.equals("java.util.List")
-                || qname.equals("java.util.Set")
-                || qname.equals("java.util.Collection")
-                || qname.equals("java.lang.Iterable");
+        return model.beanModel(currentType).navigableNames();
     }
 
     private void extractOopathConstraintProperties(RuleDeclarationContext rule, VisibleSymbols.Builder builder) {
         if (rule.ruleBody() == null) return;
-        findOopathConstraintAtCaret(rule, builder);
-    }
-
-    private void findOopathConstraintAtCaret(ParseTree node, VisibleSymbols.Builder builder) {
-        if (node instanceof OopathExpressionContext oopathExpr) {
-            processOopathExpressionForConstraint(oopathExpr, builder);
-            return;
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            findOopathConstraintAtCaret(node.getChild(i), builder);
+        OopathExpressionContext atCaret = oopathAtCaret();
+        if (atCaret != null) {
+            processOopathExpressionForConstraint(atCaret, builder);
         }
     }
 
@@ -553,8 +312,9 @@ public class CompletionContext {
         for (int ci = 0; ci < chunks.size(); ci++) {
             OopathChunkContext chunk = chunks.get(ci);
             String chunkName = chunk.identifier(0).getText();
-            SemanticType chunkType = resolvePropertyType(currentType, chunkName);
-            if (chunkType == null) break;
+            BeanModel.Property property = model.beanModel(currentType).property(chunkName);
+            if (property == null || property.type() == null) break;
+            SemanticType chunkType = property.type();
 
             boolean isLastChunk = (ci == chunks.size() - 1);
             int chunkStart = chunk.getStart().getTokenIndex();
@@ -569,112 +329,19 @@ public class CompletionContext {
         }
     }
 
-    private SemanticType resolvePropertyType(SemanticType ownerType, String propertyName) {
-        if (!ownerType.isReferenceType()) return null;
-        try {
-            var refType = ownerType.resolvedType().asReferenceType();
-            var typeDecl = refType.getTypeDeclaration().orElse(null);
-            if (typeDecl == null) return null;
-
-            String getterName = "get" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
-            for (var method : typeDecl.getDeclaredMethods()) {
-                if (method.getName().equals(getterName) && method.getNumberOfParams() == 0) {
-                    return SemanticType.value(method.getReturnType());
-                }
-            }
-            for (var field : typeDecl.getAllFields()) {
-                if (field.getName().equals(propertyName)) {
-                    return SemanticType.value(field.getType());
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Cannot resolve property '{}': {}", propertyName, e.getMessage());
-        }
-        return null;
-    }
-
     private void addPropertiesAsSymbols(SemanticType ownerType, VisibleSymbols.Builder builder) {
-        if (!ownerType.isReferenceType()) return;
-        try {
-            var refType = ownerType.resolvedType().asReferenceType();
-            var typeDecl = refType.getTypeDeclaration().orElse(null);
-            if (typeDecl == null) return;
-
-            for (var field : typeDecl.getAllFields()) {
-                try {
-                    builder.add(field.getName(), SemanticType.value(field.getType()));
-                } catch (Exception e) {
-                    logger.debug("Cannot resolve field type '{}': {}", field.getName(), e.getMessage());
-                }
-            }
-            for (var method : typeDecl.getDeclaredMethods()) {
-                String methodName = method.getName();
-                if (method.getNumberOfParams() == 0) {
-                    String propName = null;
-                    if (methodName.startsWith("get") && methodName.length() > 3) {
-                        propName = Character.toLowerCase(methodName.charAt(3)) + methodName.substring(4);
-                    } else if (methodName.startsWith("is") && methodName.length() > 2) {
-                        propName = Character.toLowerCase(methodName.charAt(2)) + methodName.substring(3);
-                    }
-                    if (propName != null) {
-                        try {
-                            builder.add(propName, SemanticType.value(method.getReturnType()));
-                        } catch (Exception e) {
-                            logger.debug("Cannot resolve method return type '{}': {}", methodName, e.getMessage());
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Cannot add properties from type: {}", e.getMessage());
-        }
-    }
-
-    private void extractLocalVariables(RuleDeclarationContext rule, VisibleSymbols.Builder builder) {
-        if (rule.ruleBody() == null) return;
-        for (var ruleItem : rule.ruleBody().ruleItem()) {
-            RuleConsequenceContext consequence = ruleItem.ruleConsequence();
-            if (consequence == null) continue;
-            StatementContext stmtCtx = consequence.statement();
-            if (stmtCtx == null) continue;
-            BlockContext blockCtx = findBlockInStatement(stmtCtx);
-            if (blockCtx == null) continue;
-            for (BlockStatementContext blockStmt : blockCtx.blockStatement()) {
-                if (blockStmt.getStart() != null && blockStmt.getStart().getTokenIndex() >= caretTokenIndex) continue;
-                LocalVariableDeclarationContext localVar = blockStmt.localVariableDeclaration();
-                if (localVar == null) continue;
-                extractFromLocalVarDecl(localVar, builder);
+        for (BeanModel.Property property : model.beanModel(ownerType).properties()) {
+            if (property.type() != null) {
+                builder.add(property.name(), property.type());
             }
         }
     }
 
-    private BlockContext findBlockInStatement(StatementContext stmtCtx) {
-        for (int i = 0; i < stmtCtx.getChildCount(); i++) {
-            if (stmtCtx.getChild(i) instanceof BlockContext bc) {
-                return bc;
-            }
-        }
-        return null;
-    }
-
-    private void extractFromLocalVarDecl(LocalVariableDeclarationContext localVar, VisibleSymbols.Builder builder) {
-        if (localVar.typeType() != null && localVar.variableDeclarators() != null) {
-            String typeName = localVar.typeType().getText();
-            for (VariableDeclaratorContext decl : localVar.variableDeclarators().variableDeclarator()) {
-                if (decl.variableDeclaratorId() != null) {
-                    String varName = decl.variableDeclaratorId().identifier().getText();
-                    SemanticType st = resolveTypeToSemanticType(typeName);
-                    if (st != null) builder.add(varName, st);
-                }
-            }
-        } else if (localVar.VAR() != null && localVar.identifier() != null) {
-            String varName = localVar.identifier().getText();
-            SemanticType st = resolveTypeToSemanticType("Object");
-            if (st != null) builder.add(varName, st);
-        }
+    SemanticType resolveTypeToSemanticType(String typeName) {
+        return model.typeResolutions(summary).type(typeName, this, () -> doResolveTypeToSemanticType(typeName));
     }
 
-    SemanticType resolveTypeToSemanticType(String typeName) {
+    private SemanticType doResolveTypeToSemanticType(String typeName) {
         try {
             boolean isArray = typeName.endsWith("[]");
             String baseTypeName = isArray ? typeName.substring(0, typeName.indexOf('[')) : typeName;
@@ -697,8 +364,13 @@ public class CompletionContext {
             model.typeSolver().solveType("java.lang." + simpleName);
             return "java.lang." + simpleName;
         } catch (Exception ignored) { }
-        for (String imp : imports()) {
-            if (imp.endsWith("." + simpleName)) return imp;
+        String imported = summary.importedType(simpleName);
+        if (imported != null) return imported;
+        for (String pkg : summary.starImports()) {
+            try {
+                model.typeSolver().solveType(pkg + "." + simpleName);
+                return pkg + "." + simpleName;
+            } catch (Exception ignored) { }
         }
         try {
             model.typeSolver().solveType(simpleName);
@@ -706,42 +378,4 @@ public class CompletionContext {
         } catch (Exception ignored) { }
         return null;
     }
-
-    private void collectEntryPoints(RuleDeclarationContext rule, Set<String> seen) {
-        if (rule.ruleBody() == null) return;
-        for (var ruleItem : rule.ruleBody().ruleItem()) {
-            collectEntryPointsFromTree(ruleItem, seen);
-        }
-    }
-
-    private void collectEntryPointsFromTree(ParseTree node, Set<String> seen) {
-        if (node instanceof BoundOopathContext bound) {
-            var oopathExpr = bound.oopathExpression();
-            if (oopathExpr != null) {
-                OopathRootContext root = oopathExpr.oopathRoot();
-                if (root != null && root.identifier(0) != null) {
-                    seen.add(root.identifier(0).getText());
-                }
-            }
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            collectEntryPointsFromTree(node.getChild(i), seen);
-        }
-    }
-
-    private DrlxCompilationUnitContext findDrlxCompilationUnit() {
-        return findContext(tree, DrlxCompilationUnitContext.class);
-    }
-
-    @SuppressWarnings("unchecked")
-    private static <T> T findContext(ParseTree node, Class<T> type) {
-        if (type.isInstance(node)) {
-            return (T) node;
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            T found = findContext(node.getChild(i), type);
-            if (found != null) return found;
-        }
-        return null;
-    }
 }
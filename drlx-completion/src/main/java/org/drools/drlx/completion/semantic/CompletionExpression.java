@@ -1,6 +1,7 @@
 package org.drools.drlx.completion.semantic;
 
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.DocumentSummary;
 import org.drools.drlx.parser.DrlxParser;
 
 /**
@@ -26,18 +27,28 @@ public class CompletionExpression {
     private final ParseTree parseTree;
     private final int caretTokenIndex;
     private final int scopeTokenIndex;
+    private DocumentSummary summary;
 
     private CompletionExpression(DrlxParser parser, ParseTree parseTree,
-                                int caretTokenIndex, int scopeTokenIndex) {
+                                int caretTokenIndex, int scopeTokenIndex, DocumentSummary summary) {
         this.parser = parser;
         this.parseTree = parseTree;
         this.caretTokenIndex = caretTokenIndex;
         this.scopeTokenIndex = scopeTokenIndex;
+        this.summary = summary;
     }
 
     public static CompletionExpression fromCaretPosition(
             DrlxParser parser, ParseTree tree, int caretTokenIndex) {
-        return new CompletionExpression(parser, tree, caretTokenIndex, caretTokenIndex - 2);
+        return fromCaretPosition(parser, tree, caretTokenIndex, null);
+    }
+
+    /**
+     * @param summary the summary of {@code tree}, or {@code null} to build it when needed
+     */
+    public static CompletionExpression fromCaretPosition(
+            DrlxParser parser, ParseTree tree, int caretTokenIndex, DocumentSummary summary) {
+        return new CompletionExpression(parser, tree, caretTokenIndex, caretTokenIndex - 2, summary);
     }
 
     public DrlxParser parser() {
@@ -55,4 +66,11 @@ public class CompletionExpression {
     public int scopeTokenIndex() {
         return scopeTokenIndex;
     }
+
+    public DocumentSummary summary() {
+        if (summary == null) {
+            summary = DocumentSummary.of(parseTree);
+        }
+        return summary;
+    }
 }
@@ -0,0 +1,148 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.function.Function;
+
+import com.github.javaparser.resolution.types.ResolvedType;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.drools.drlx.parser.DrlxLexer;
+
+/**
+ * Resolves a plain member chain on a visible symbol, such as
+ * {@code orders.get(0).lines.}, hop by hop from {@link WorkspaceSemanticModel#memberTypes}.
+ *
+ * <p>A hop is a property ({@code .lines}), a method call by name and argument count
+ * ({@code .get(0)}), or an index ({@code [0]}, on an array or through {@code get}).
+ * Anything else, a literal, a cast, a type name or an overload whose return types
+ * disagree, makes it give up so the caller falls back to transpiling the expression.
+ */
+final class MemberChain {
+
+    private final TokenStream tokens;
+    private final int end;
+    private int index;
+
+    private MemberChain(TokenStream tokens, int start, int end) {
+        this.tokens = tokens;
+        this.index = start;
+        this.end = end;
+    }
+
+    /**
+     * The type of the expression from {@code start} up to the member operator at
+     * {@code dotTokenIndex}, or {@code null} if it isn't a member chain this can resolve.
+     */
+    static SemanticType resolve(TokenStream tokens, int start, int dotTokenIndex,
+                                VisibleSymbols symbols, WorkspaceSemanticModel model) {
+        return new MemberChain(tokens, start, dotTokenIndex).resolve(symbols, model);
+    }
+
+    private SemanticType resolve(VisibleSymbols symbols, WorkspaceSemanticModel model) {
+        Token root = next();
+        if (root == null || root.getType() != DrlxLexer.IDENTIFIER) return null;
+        SemanticType rootType = symbols.lookup(root.getText()).orElse(null);
+        if (rootType == null || rootType.resolvedType() == null) return null;
+
+        ResolvedType current = rootType.resolvedType();
+        Token token;
+        while ((token = next()) != null) {
+            if (token.getType() == DrlxLexer.LBRACK) {
+                if (!skipBalanced(DrlxLexer.LBRACK, DrlxLexer.RBRACK)) return null;
+                current = index(current, model);
+            } else if (token.getType() == DrlxLexer.DOT || token.getType() == DrlxLexer.EXCL_DOT) {
+                Token name = next();
+                if (name == null || name.getType() != DrlxLexer.IDENTIFIER) return null;
+                Token after = peek();
+                if (after != null && after.getType() == DrlxLexer.LPAREN) {
+                    next();
+                    int arguments = countArguments();
+                    if (arguments < 0) return null;
+                    current = member(current, model, types -> types.method(name.getText(), arguments));
+                } else {
+                    current = member(current, model, types -> types.property(name.getText()));
+                }
+            } else {
+                return null;
+            }
+            if (current == null) return null;
+        }
+        return SemanticType.value(current);
+    }
+
+    private static ResolvedType member(ResolvedType owner, WorkspaceSemanticModel model,
+                                       Function<MemberTypes, ResolvedType> lookup) {
+        if (!owner.isReferenceType()) return null;
+        return lookup.apply(model.memberTypes(owner.asReferenceType()));
+    }
+
+    private static ResolvedType index(ResolvedType owner, WorkspaceSemanticModel model) {
+        if (owner.isArray()) {
+            return owner.asArrayType().getComponentType();
+        }
+        return member(owner, model, types -> types.method("get", 1));
+    }
+
+    /**
+     * Skips to the matching close token, the open one just consumed.
+     */
+    private boolean skipBalanced(int open, int close) {
+        int depth = 1;
+        Token token;
+        while ((token = next()) != null) {
+            if (token.getType() == open) {
+                depth++;
+            } else if (token.getType() == close && --depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the arguments up to the matching {@code )}, the {@code (} just consumed,
+     * or -1 if it isn't closed before the end.
+     */
+    private int countArguments() {
+        Token first = peek();
+        if (first != null && first.getType() == DrlxLexer.RPAREN) {
+            next();
+            return 0;
+        }
+        int depth = 1;
+        int arguments = 1;
+        Token token;
+        while ((token = next()) != null) {
+            int type = token.getType();
+            if (type == DrlxLexer.LPAREN || type == DrlxLexer.LBRACK || type == DrlxLexer.LBRACE) {
+                depth++;
+            } else if (type == DrlxLexer.RPAREN || type == DrlxLexer.RBRACK || type == DrlxLexer.RBRACE) {
+                if (--depth == 0) return arguments;
+            } else if (type == DrlxLexer.COMMA && depth == 1) {
+                arguments++;
+            }
+        }
+        return -1;
+    }
+
+    private Token peek() {
+        int i = skipHidden(index);
+        return i < end ? tokens.get(i) : null;
+    }
+
+    private Token next() {
+        int i = skipHidden(index);
+        if (i >= end) {
+            index = end;
+            return null;
+        }
+        index = i + 1;
+        return tokens.get(i);
+    }
+
+    private int skipHidden(int i) {
+        while (i < end && tokens.get(i).getChannel() != Token.DEFAULT_CHANNEL) {
+            i++;
+        }
+        return i;
+    }
+}
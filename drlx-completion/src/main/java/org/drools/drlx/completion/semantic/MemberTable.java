@@ -0,0 +1,194 @@
+package org.drools.drlx.completion.semantic;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.github.javaparser.ast.AccessSpecifier;
+import com.github.javaparser.resolution.declarations.ResolvedFieldDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionFieldDeclaration;
+import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionMethodDeclaration;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.drools.drlx.completion.DrlxCompletionHelper.createCompletionItem;
+
+/**
+ * The member completion items of one reference type, built once.
+ *
+ * <p>On a value, the items are the public fields (with their type as detail), the
+ * public methods by name, and a property for each {@code getX}/{@code isX} method.
+ * On a type, only its static fields and methods apply.
+ *
+ * <p>Walking the type hierarchy for fields and methods is the expensive part of a
+ * dot completion, so {@link WorkspaceSemanticModel#memberTable} keeps one table per
+ * type declaration, read straight from the loaded class
+ * when it can be loaded, see {@link #of(Class)}. The lists are unmodifiable and their
+ * items are shared by every request: they must not be modified.
+ */
+public final class MemberTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberTable.class);
+
+    private final List<CompletionItem> instanceItems;
+    private final List<CompletionItem> staticItems;
+
+    private MemberTable(List<CompletionItem> instanceItems, List<CompletionItem> staticItems) {
+        this.instanceItems = instanceItems;
+        this.staticItems = staticItems;
+    }
+
+    static MemberTable of(ResolvedReferenceType referenceType) {
+        List<CompletionItem> instanceItems = new ArrayList<>();
+        List<CompletionItem> staticItems = new ArrayList<>();
+        try {
+            for (ResolvedFieldDeclaration field : referenceType.getAllFieldsVisibleToInheritors()) {
+                if (isAccessible(field)) {
+                    CompletionItem item = createCompletionItem(field.getName(), CompletionItemKind.Field);
+                    item.setDetail(field.getType().describe());
+                    instanceItems.add(item);
+                    if (isStatic(field)) {
+                        staticItems.add(item);
+                    }
+                }
+            }
+
+            Set<String> methodNames = new LinkedHashSet<>();
+            Set<String> staticMethodNames = new LinkedHashSet<>();
+            for (ResolvedMethodDeclaration method : referenceType.getAllMethods()) {
+                if (!isAccessible(method) || method.getName().startsWith("$")) continue;
+                methodNames.add(method.getName());
+                if (isStatic(method)) {
+                    staticMethodNames.add(method.getName());
+                }
+            }
+            addMethods(methodNames, staticMethodNames, instanceItems, staticItems);
+        } catch (Exception e) {
+            logger.debug("Error resolving members of '{}': {}", referenceType.describe(), e.getMessage());
+        }
+        return new MemberTable(List.copyOf(instanceItems), List.copyOf(staticItems));
+    }
+
+    /**
+     * The table of a loaded class, read through {@code java.lang.reflect}: the same
+     * items as {@link #of(ResolvedReferenceType)} without going through JavaParser's
+     * reflection model for every member.
+     */
+    static MemberTable of(Class<?> clazz) {
+        List<CompletionItem> instanceItems = new ArrayList<>();
+        List<CompletionItem> staticItems = new ArrayList<>();
+        try {
+            for (Field field : clazz.getFields()) {
+                CompletionItem item = createCompletionItem(field.getName(), CompletionItemKind.Field);
+                item.setDetail(ReflectiveTypes.describe(field.getGenericType()));
+                instanceItems.add(item);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    staticItems.add(item);
+                }
+            }
+
+            Set<String> methodNames = new LinkedHashSet<>();
+            Set<String> staticMethodNames = new LinkedHashSet<>();
+            for (Method method : clazz.getMethods()) {
+                if (method.isBridge() || method.isSynthetic() || method.getName().startsWith("$")) continue;
+                methodNames.add(method.getName());
+                if (Modifier.isStatic(method.getModifiers())) {
+                    staticMethodNames.add(method.getName());
+                }
+            }
+            addMethods(methodNames, staticMethodNames, instanceItems, staticItems);
+        } catch (LinkageError | SecurityException e) {
+            logger.debug("Error reading members of '{}': {}", clazz.getName(), e.getMessage());
+        }
+        return new MemberTable(List.copyOf(instanceItems), List.copyOf(staticItems));
+    }
+
+    private static void addMethods(Set<String> methodNames, Set<String> staticMethodNames,
+                                   List<CompletionItem> instanceItems, List<CompletionItem> staticItems) {
+        Set<String> propertyNames = new LinkedHashSet<>();
+        for (String methodName : methodNames) {
+            CompletionItem item = createCompletionItem(methodName, CompletionItemKind.Method);
+            instanceItems.add(item);
+            if (staticMethodNames.contains(methodName)) {
+                staticItems.add(item);
+            }
+            String propName = propertyName(methodName);
+            if (propName != null) {
+                propertyNames.add(propName);
+            }
+        }
+        for (String propName : propertyNames) {
+            instanceItems.add(createCompletionItem(propName, CompletionItemKind.Field));
+        }
+    }
+
+    private static String propertyName(String methodName) {
+        if (methodName.startsWith("get") && methodName.length() > 3) {
+            return Character.toLowerCase(methodName.charAt(3)) + methodName.substring(4);
+        }
+        if (methodName.startsWith("is") && methodName.length() > 2) {
+            return Character.toLowerCase(methodName.charAt(2)) + methodName.substring(3);
+        }
+        return null;
+    }
+
+    /**
+     * Fields, methods and properties, for a member access on a value.
+     */
+    public List<CompletionItem> instanceItems() {
+        return instanceItems;
+    }
+
+    /**
+     * Static fields and methods, for a member access on a type name.
+     */
+    public List<CompletionItem> staticItems() {
+        return staticItems;
+    }
+
+    private static boolean isStatic(ResolvedFieldDeclaration field) {
+        try {
+            return field.isStatic();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean isStatic(ResolvedMethodDeclaration method) {
+        try {
+            return method.isStatic();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean isAccessible(ResolvedFieldDeclaration field) {
+        try {
+            if (field instanceof ReflectionFieldDeclaration reflectionField) {
+                return reflectionField.accessSpecifier() == AccessSpecifier.PUBLIC;
+            }
+            return true;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static boolean isAccessible(ResolvedMethodDeclaration method) {
+        try {
+            if (method instanceof ReflectionMethodDeclaration reflectionMethod) {
+                return reflectionMethod.accessSpecifier() == AccessSpecifier.PUBLIC;
+            }
+            return true;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.javaparser.ast.AccessSpecifier;
+import com.github.javaparser.resolution.declarations.ResolvedFieldDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import com.github.javaparser.resolution.types.ResolvedType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The member types of one parameterized type, with its type variables substituted:
+ * on {@code List<Order>}, {@code get(int)} returns {@code Order}.
+ *
+ * <p>Members come from the type and all its ancestors, each ancestor with the type
+ * arguments it has in this type, so {@code Map<String, List<Order>>} resolves
+ * {@code values()} to {@code Collection<List<Order>>}. Substitution walks the
+ * ancestors and rewrites every member type, so {@link WorkspaceSemanticModel#memberTypes}
+ * keeps the table of each parameterization.
+ *
+ * <p>A type still holding a type variable after substitution, as the result of a
+ * generic method or a raw type, is not a usable answer and is left out.
+ */
+public final class MemberTypes {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberTypes.class);
+
+    /**
+     * @param owner the index in the hierarchy of the type declaring the method
+     */
+    private record Signature(int owner, int arity, boolean variadic, ResolvedType returnType) {
+
+        boolean accepts(int argumentCount) {
+            return variadic ? argumentCount >= arity - 1 : argumentCount == arity;
+        }
+    }
+
+    private final Map<String, ResolvedType> fields;
+    private final Map<String, List<Signature>> methods;
+
+    private MemberTypes(Map<String, ResolvedType> fields, Map<String, List<Signature>> methods) {
+        this.fields = fields;
+        this.methods = methods;
+    }
+
+    static MemberTypes of(ResolvedReferenceType type) {
+        Map<String, ResolvedType> fields = new HashMap<>();
+        Map<String, List<Signature>> methods = new HashMap<>();
+        try {
+            List<ResolvedReferenceType> hierarchy = new ArrayList<>();
+            hierarchy.add(type);
+            hierarchy.addAll(type.getAllAncestors());
+            for (int i = 0; i < hierarchy.size(); i++) {
+                ResolvedReferenceType owner = hierarchy.get(i);
+                ResolvedReferenceTypeDeclaration decl = owner.getTypeDeclaration().orElse(null);
+                if (decl == null) continue;
+                for (ResolvedFieldDeclaration field : decl.getDeclaredFields()) {
+                    if (fields.containsKey(field.getName()) || !isPublic(field)) continue;
+                    ResolvedType fieldType = substitute(owner, field::getType);
+                    if (fieldType != null) {
+                        fields.put(field.getName(), fieldType);
+                    }
+                }
+                for (ResolvedMethodDeclaration method : decl.getDeclaredMethods()) {
+                    if (!isPublic(method)) continue;
+                    ResolvedType returnType = substitute(owner, method::getReturnType);
+                    if (returnType != null) {
+                        int ownerIndex = i;
+                        methods.computeIfAbsent(method.getName(), name -> new ArrayList<>())
+                                .add(new Signature(ownerIndex, method.getNumberOfParams(), method.hasVariadicParameter(), returnType));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Cannot collect member types of '{}': {}", type.describe(), e.getMessage());
+        }
+        return new MemberTypes(fields, methods);
+    }
+
+    private interface TypeSource {
+        ResolvedType get() throws Exception;
+    }
+
+    private static ResolvedType substitute(ResolvedReferenceType owner, TypeSource source) {
+        try {
+            ResolvedType type = owner.typeParametersMap().replaceAll(source.get());
+            if (type.isWildcard()) {
+                type = type.asWildcard().isUpperBounded() ? type.asWildcard().getBoundedType() : null;
+            }
+            return type == null || type.isTypeVariable() ? null : type;
+        } catch (Exception e) {
+            logger.debug("Cannot substitute member type on '{}': {}", owner.describe(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The type of the public field {@code name}, or {@code null}.
+     */
+    public ResolvedType field(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * The return type of {@code name} called with {@code argumentCount} arguments, or
+     * {@code null} if there is no such method or its overloads disagree. The nearest
+     * type declaring a matching method hides the ones it overrides.
+     */
+    public ResolvedType method(String name, int argumentCount) {
+        ResolvedType result = null;
+        int owner = -1;
+        for (Signature signature : methods.getOrDefault(name, List.of())) {
+            if (!signature.accepts(argumentCount) || (owner >= 0 && signature.owner() != owner)) continue;
+            owner = signature.owner();
+            if (result != null && !result.describe().equals(signature.returnType().describe())) {
+                return null;
+            }
+            result = signature.returnType();
+        }
+        return result;
+    }
+
+    /**
+     * The type of {@code name} in a member access: the return type of its
+     * {@code getX()}/{@code isX()} getter, or of the public field.
+     */
+    public ResolvedType property(String name) {
+        if (name.isEmpty()) return null;
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        ResolvedType getter = method("get" + suffix, 0);
+        if (getter == null) {
+            getter = method("is" + suffix, 0);
+        }
+        return getter != null ? getter : field(name);
+    }
+
+    private static boolean isPublic(ResolvedFieldDeclaration field) {
+        try {
+            return field.accessSpecifier() == AccessSpecifier.PUBLIC;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static boolean isPublic(ResolvedMethodDeclaration method) {
+        try {
+            return method.accessSpecifier() == AccessSpecifier.PUBLIC;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+}
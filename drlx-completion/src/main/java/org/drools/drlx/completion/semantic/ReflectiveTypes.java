@@ -0,0 +1,128 @@
+package org.drools.drlx.completion.semantic;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.model.typesystem.ReferenceTypeImpl;
+import com.github.javaparser.resolution.types.ResolvedArrayType;
+import com.github.javaparser.resolution.types.ResolvedPrimitiveType;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.resolution.types.ResolvedVoidType;
+import com.github.javaparser.resolution.types.ResolvedWildcard;
+
+/**
+ * Conversions from {@code java.lang.reflect} types, for the members {@link MemberTable}
+ * and {@link BeanModel} read from a loaded class.
+ */
+final class ReflectiveTypes {
+
+    private ReflectiveTypes() {
+    }
+
+    /**
+     * The name of {@code type} as {@link ResolvedType#describe()} writes it: canonical
+     * class names, type arguments included.
+     */
+    static String describe(Type type) {
+        if (type instanceof Class<?> clazz) {
+            if (clazz.isArray()) {
+                return describe(clazz.getComponentType()) + "[]";
+            }
+            String canonical = clazz.getCanonicalName();
+            return canonical != null ? canonical : clazz.getTypeName();
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            StringBuilder sb = new StringBuilder(describe(parameterized.getRawType())).append('<');
+            Type[] arguments = parameterized.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(describe(arguments[i]));
+            }
+            return sb.append('>').toString();
+        }
+        if (type instanceof GenericArrayType array) {
+            return describe(array.getGenericComponentType()) + "[]";
+        }
+        return type.getTypeName();
+    }
+
+    /**
+     * {@code type} as JavaParser sees it, or {@code null} for a type variable.
+     *
+     * @throws com.github.javaparser.resolution.UnsolvedSymbolException if {@code solver}
+     *                                                                  doesn't know a class
+     */
+    static ResolvedType resolve(Type type, TypeSolver solver) {
+        if (type instanceof Class<?> clazz) {
+            if (clazz == void.class) {
+                return ResolvedVoidType.INSTANCE;
+            }
+            if (clazz.isPrimitive()) {
+                return ResolvedPrimitiveType.byName(clazz.getName());
+            }
+            if (clazz.isArray()) {
+                ResolvedType component = resolve(clazz.getComponentType(), solver);
+                return component != null ? new ResolvedArrayType(component) : null;
+            }
+            return new ReferenceTypeImpl(solver.solveType(describe(clazz)));
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            List<ResolvedType> arguments = new ArrayList<>();
+            for (Type argument : parameterized.getActualTypeArguments()) {
+                ResolvedType resolved = resolve(argument, solver);
+                if (resolved == null) {
+                    // A type variable argument: the raw type, as JavaParser has it
+                    return resolve(parameterized.getRawType(), solver);
+                }
+                arguments.add(resolved);
+            }
+            return new ReferenceTypeImpl(solver.solveType(describe(parameterized.getRawType())), arguments);
+        }
+        if (type instanceof GenericArrayType array) {
+            ResolvedType component = resolve(array.getGenericComponentType(), solver);
+            return component != null ? new ResolvedArrayType(component) : null;
+        }
+        if (type instanceof WildcardType wildcard) {
+            if (wildcard.getLowerBounds().length > 0) {
+                ResolvedType bound = resolve(wildcard.getLowerBounds()[0], solver);
+                return bound != null ? ResolvedWildcard.superBound(bound) : ResolvedWildcard.UNBOUNDED;
+            }
+            Type upper = wildcard.getUpperBounds()[0];
+            if (upper == Object.class) {
+                return ResolvedWildcard.UNBOUNDED;
+            }
+            ResolvedType bound = resolve(upper, solver);
+            return bound != null ? ResolvedWildcard.extendsBound(bound) : ResolvedWildcard.UNBOUNDED;
+        }
+        return null;
+    }
+
+    /**
+     * The first type argument of {@code type}, or {@code null} if it has none.
+     */
+    static Type firstTypeArgument(Type type) {
+        if (type instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments().length > 0) {
+            return parameterized.getActualTypeArguments()[0];
+        }
+        return null;
+    }
+
+    /**
+     * The class of {@code type} without its type arguments, or {@code null} for a type
+     * variable, a wildcard or a generic array.
+     */
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() instanceof Class<?> raw) {
+            return raw;
+        }
+        return null;
+    }
+}
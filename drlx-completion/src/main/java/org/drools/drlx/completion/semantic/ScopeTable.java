@@ -0,0 +1,300 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.RegionFingerprints;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser.AccumulateItemContext;
+import org.drools.drlx.parser.DrlxParser.BlockContext;
+import org.drools.drlx.parser.DrlxParser.BlockStatementContext;
+import org.drools.drlx.parser.DrlxParser.BoundOopathContext;
+import org.drools.drlx.parser.DrlxParser.LocalVariableDeclarationContext;
+import org.drools.drlx.parser.DrlxParser.OopathRootContext;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+import org.drools.drlx.parser.DrlxParser.RuleParameterContext;
+import org.drools.drlx.parser.DrlxParser.VariableDeclaratorContext;
+
+/**
+ * The declarations of one rule and the scopes they are visible in, so that
+ * {@link VisibleSymbols} for a caret is a lookup rather than a walk of the rule.
+ *
+ * <p>Rule parameters, OOPath bindings and accumulate results are declared in the
+ * rule's scope; local variables in the scope of their block. Blocks nest, so the
+ * scopes form a tree of token ranges, each one's children ordered and disjoint:
+ * the scopes around a caret are found with a binary search per level.
+ *
+ * <p>A table holds no parse tree nodes, only names, what each declaration's type is
+ * written as, and token offsets from the rule's first token. It is valid for any
+ * parse of the same rule tokens under the same header, which is how
+ * {@link WorkspaceSemanticModel#scopeTable} caches it (see {@link RegionFingerprints}).
+ * Types are resolved on first use and kept, together with the diagnostics resolving
+ * them reported.
+ */
+public final class ScopeTable {
+
+    private final Scope root;
+
+    private ScopeTable(Scope root) {
+        this.root = root;
+    }
+
+    public static ScopeTable of(RuleDeclarationContext rule) {
+        Scope root = new Scope(0, Integer.MAX_VALUE);
+        new Collector(rule.getStart().getTokenIndex()).collect(rule, root);
+        return new ScopeTable(root);
+    }
+
+    private record Collector(int ruleStart) {
+
+        private void collect(ParseTree node, Scope scope) {
+            if (node instanceof RuleParameterContext param) {
+                if (param.typeType() != null && param.identifier() != null) {
+                    scope.declare(new Declaration(param.identifier().getText(), start(param),
+                            param.typeType().getText(), null));
+                }
+                return;
+            }
+            if (node instanceof BoundOopathContext bound) {
+                if (bound.identifier().size() >= 2) {
+                    String typeName = bound.identifier(0).getText();
+                    String bindName = bound.identifier(1).getText();
+                    if (!"var".equals(typeName)) {
+                        scope.declare(new Declaration(bindName, start(bound), typeName, null));
+                    } else {
+                        String entryPoint = entryPointOf(bound);
+                        if (entryPoint != null) {
+                            scope.declare(new Declaration(bindName, start(bound), null, entryPoint));
+                        }
+                    }
+                }
+                return;
+            }
+            if (node instanceof AccumulateItemContext accItem) {
+                if (accItem.identifier() != null) {
+                    String bindName = accItem.identifier().getText();
+                    if (accItem.typeType() != null) {
+                        scope.declare(new Declaration(bindName, start(accItem), accItem.typeType().getText(), null));
+                    } else if (accItem.VAR() != null) {
+                        scope.declare(new Declaration(bindName, start(accItem), accumulateResultType(accItem), null));
+                    }
+                }
+                return;
+            }
+            if (node instanceof LocalVariableDeclarationContext localVar && localVar.getParent() instanceof BlockStatementContext) {
+                declareLocals(localVar, scope);
+                return;
+            }
+            Scope inner = scope;
+            if (node instanceof BlockContext block && block.getStart() != null) {
+                inner = new Scope(start(block), blockStop(block, scope));
+                scope.children.add(inner);
+            }
+            for (int i = 0; i < node.getChildCount(); i++) {
+                collect(node.getChild(i), inner);
+            }
+        }
+
+        private void declareLocals(LocalVariableDeclarationContext localVar, Scope scope) {
+            if (localVar.typeType() != null && localVar.variableDeclarators() != null) {
+                String typeName = localVar.typeType().getText();
+                for (VariableDeclaratorContext decl : localVar.variableDeclarators().variableDeclarator()) {
+                    if (decl.variableDeclaratorId() != null) {
+                        scope.declare(new Declaration(decl.variableDeclaratorId().identifier().getText(),
+                                start(localVar), typeName, null));
+                    }
+                }
+            } else if (localVar.VAR() != null && localVar.identifier() != null) {
+                scope.declare(new Declaration(localVar.identifier().getText(), start(localVar), "Object", null));
+            }
+        }
+
+        private int start(ParserRuleContext node) {
+            return node.getStart().getTokenIndex() - ruleStart;
+        }
+
+        /**
+         * The index of the block's closing brace. A block error recovery left unclosed
+         * (the one being typed in) reaches as far as the scope around it.
+         */
+        private int blockStop(BlockContext block, Scope outer) {
+            Token stop = block.getStop();
+            if (stop != null && stop.getType() == DrlxLexer.RBRACE && stop.getTokenIndex() > block.getStart().getTokenIndex()) {
+                return stop.getTokenIndex() - ruleStart;
+            }
+            return outer.stop;
+        }
+    }
+
+    private static String entryPointOf(BoundOopathContext bound) {
+        var oopathExpr = bound.oopathExpression();
+        if (oopathExpr == null) return null;
+        OopathRootContext root = oopathExpr.oopathRoot();
+        if (root == null || root.identifier(0) == null) return null;
+        return root.identifier(0).getText();
+    }
+
+    private static String accumulateResultType(AccumulateItemContext accItem) {
+        var accCall = accItem.accumulateCall();
+        if (accCall == null || accCall.qualifiedName() == null) return "Object";
+        return switch (accCall.qualifiedName().getText()) {
+            case "sum", "avg", "min", "max" -> "Number";
+            case "count" -> "Long";
+            case "collectList" -> "java.util.List";
+            case "collectSet" -> "java.util.Set";
+            default -> "Object";
+        };
+    }
+
+    /**
+     * Adds the declarations visible at {@code caretOffset}, the caret's token offset from
+     * the rule's first token, to {@code builder}: those of the scopes around it that start
+     * before it, outer scopes first so that inner declarations shadow them. Types are
+     * resolved in {@code context} on first use.
+     */
+    public void addVisible(int caretOffset, CompletionContext context, VisibleSymbols.Builder builder) {
+        Scope scope = root;
+        while (scope != null) {
+            for (Declaration declaration : scope.declarations) {
+                if (declaration.declaredAt >= caretOffset) {
+                    break;
+                }
+                SemanticType type = declaration.type(context);
+                if (type != null) {
+                    builder.add(declaration.name, type);
+                }
+            }
+            scope = scope.childAround(caretOffset);
+        }
+    }
+
+    /**
+     * All declarations, in document order within each scope, outer scopes first.
+     */
+    public List<Declaration> declarations() {
+        List<Declaration> all = new ArrayList<>();
+        addAll(root, all);
+        return all;
+    }
+
+    private static void addAll(Scope scope, List<Declaration> all) {
+        all.addAll(scope.declarations);
+        for (Scope child : scope.children) {
+            addAll(child, all);
+        }
+    }
+
+    /**
+     * How many scopes hold the token at {@code offset} from the rule's first token,
+     * the rule's own included.
+     */
+    int depthAt(int offset) {
+        int depth = 0;
+        for (Scope scope = root; scope != null; scope = scope.childAround(offset)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static final class Scope {
+
+        private final int start;
+        private final int stop;
+        private final List<Declaration> declarations = new ArrayList<>();
+        private final List<Scope> children = new ArrayList<>();
+
+        private Scope(int start, int stop) {
+            this.start = start;
+            this.stop = stop;
+        }
+
+        private void declare(Declaration declaration) {
+            declarations.add(declaration);
+        }
+
+        /**
+         * The child scope whose range holds {@code offset} past its opening brace, or {@code null}.
+         */
+        private Scope childAround(int offset) {
+            int low = 0;
+            int high = children.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (children.get(mid).start < offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low == 0) {
+                return null;
+            }
+            Scope candidate = children.get(low - 1);
+            return offset <= candidate.stop ? candidate : null;
+        }
+    }
+
+    /**
+     * A name declared at a token index, with its type written either as a type name
+     * or as the entry point a {@code var} binding takes its elements from.
+     */
+    public static final class Declaration {
+
+        private final String name;
+        private final int declaredAt;
+        private final String typeName;
+        private final String entryPoint;
+        private volatile TypeResolutions.Resolution resolution;
+
+        private Declaration(String name, int declaredAt, String typeName, String entryPoint) {
+            this.name = name;
+            this.declaredAt = declaredAt;
+            this.typeName = typeName;
+            this.entryPoint = entryPoint;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * The token offset of the declaration from the rule's first token.
+         */
+        public int declaredAt() {
+            return declaredAt;
+        }
+
+        /**
+         * The declared type name, or {@code null} for a {@code var} OOPath binding.
+         */
+        public String typeName() {
+            return typeName;
+        }
+
+        /**
+         * The entry point of a {@code var} OOPath binding, or {@code null}.
+         */
+        public String entryPoint() {
+            return entryPoint;
+        }
+
+        boolean isResolved() {
+            return resolution != null;
+        }
+
+        SemanticType type(CompletionContext context) {
+            TypeResolutions.Resolution resolved = resolution;
+            if (resolved != null) {
+                return resolved.replay(context);
+            }
+            resolved = TypeResolutions.Resolution.of(context, () -> typeName != null
+                    ? context.resolveTypeToSemanticType(typeName)
+                    : context.resolveEntryPointType(entryPoint));
+            resolution = resolved;
+            return resolved.type();
+        }
+    }
+}
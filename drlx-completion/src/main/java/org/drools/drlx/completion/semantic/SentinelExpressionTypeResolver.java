@@ -11,10 +11,9 @@ import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.FieldAccessExpr;
 import org.mvel3.parser.ast.expr.NullSafeFieldAccessExpr;
 import com.github.javaparser.resolution.types.ResolvedType;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.TokenStream;
+import org.drools.drlx.completion.document.DocumentSummary;
 import org.drools.drlx.parser.DrlxLexer;
-import org.drools.drlx.parser.DrlxParser;
 import org.mvel3.ClassManager;
 import org.mvel3.MVEL;
 import org.mvel3.MVELCompiler;
@@ -35,7 +34,7 @@ public class SentinelExpressionTypeResolver implements ExpressionTypeResolver {
             VisibleSymbols symbols,
             WorkspaceTypes workspaceTypes) {
 
-        CommonTokenStream tokens = (CommonTokenStream) expression.parser().getTokenStream();
+        TokenStream tokens = expression.parser().getTokenStream();
         int caretTokenIndex = expression.caretTokenIndex();
 
         int dotTokenIndex = caretTokenIndex - 1;
@@ -45,6 +44,13 @@ public class SentinelExpressionTypeResolver implements ExpressionTypeResolver {
 
         int boundaryIndex = TokenWalker.findExpressionBoundary(tokens, dotTokenIndex);
 
+        if (workspaceTypes instanceof WorkspaceSemanticModel wsm) {
+            SemanticType chained = MemberChain.resolve(tokens, boundaryIndex, dotTokenIndex, symbols, wsm);
+            if (chained != null) {
+                return Optional.of(chained);
+            }
+        }
+
         StringBuilder sb = new StringBuilder();
         for (int i = boundaryIndex; i <= dotTokenIndex; i++) {
             if (tokens.get(i).getType() == DrlxLexer.EXCL_DOT) {
@@ -60,7 +66,7 @@ public class SentinelExpressionTypeResolver implements ExpressionTypeResolver {
         try {
             ClassLoader cl = workspaceTypes instanceof WorkspaceSemanticModel wsm
                     ? wsm.projectClassLoader() : ClassLoader.getSystemClassLoader();
-            Set<String> imports = extractImports(expression.parseTree());
+            Set<String> imports = extractImports(expression.summary());
             Declaration<?>[] declarations = toDeclarations(symbols, cl);
             var builder = MVEL.map(declarations).<Object>out(Type.OBJECT)
                     .expression(repairedText)
@@ -139,20 +145,9 @@ public class SentinelExpressionTypeResolver implements ExpressionTypeResolver {
             "java.math.BigInteger"
     );
 
-    private Set<String> extractImports(ParseTree tree) {
+    private Set<String> extractImports(DocumentSummary summary) {
         Set<String> imports = new LinkedHashSet<>(DEFAULT_IMPORTS);
-        collectImports(tree, imports);
+        imports.addAll(summary.imports());
         return imports;
     }
-
-    private void collectImports(ParseTree node, Set<String> imports) {
-        if (node instanceof DrlxParser.ImportDeclarationContext imp) {
-            if (imp.qualifiedName() != null) {
-                imports.add(imp.qualifiedName().getText());
-            }
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            collectImports(node.getChild(i), imports);
-        }
-    }
 }
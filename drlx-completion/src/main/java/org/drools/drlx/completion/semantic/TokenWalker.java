@@ -1,12 +1,12 @@
 package org.drools.drlx.completion.semantic;
 
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
 import org.drools.drlx.parser.DrlxLexer;
 
 public class TokenWalker {
 
-    public static int findExpressionBoundary(CommonTokenStream tokens, int dotTokenIndex) {
+    public static int findExpressionBoundary(TokenStream tokens, int dotTokenIndex) {
         int index = dotTokenIndex - 1;
         int parenDepth = 0;
         int bracketDepth = 0;
@@ -0,0 +1,63 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * What type names and entry points resolve to under one document header.
+ *
+ * <p>What a type name or an entry point resolves to depends only on the imports and
+ * the unit (and the classpath), not on the rule it is written in. So an edit in a
+ * rule, or in another document with the same header, does not resolve them again.
+ * {@link WorkspaceSemanticModel#typeResolutions} keeps one instance per header
+ * fingerprint, dropped when the classpath changes.
+ */
+final class TypeResolutions {
+
+    private final Map<String, Resolution> types = new ConcurrentHashMap<>();
+    private final Map<String, Resolution> entryPoints = new ConcurrentHashMap<>();
+
+    SemanticType type(String typeName, CompletionContext context, Supplier<SemanticType> resolver) {
+        return lookup(types, typeName, context, resolver);
+    }
+
+    SemanticType entryPoint(String entryPointName, CompletionContext context, Supplier<SemanticType> resolver) {
+        return lookup(entryPoints, entryPointName, context, resolver);
+    }
+
+    private static SemanticType lookup(Map<String, Resolution> cache, String name, CompletionContext context,
+                                       Supplier<SemanticType> resolver) {
+        Resolution resolution = cache.get(name);
+        if (resolution != null) {
+            return resolution.replay(context);
+        }
+        resolution = Resolution.of(context, resolver);
+        cache.putIfAbsent(name, resolution);
+        return resolution.type();
+    }
+
+    int size() {
+        return types.size() + entryPoints.size();
+    }
+
+    /**
+     * A resolved type with the diagnostics resolving it reported, so a cached
+     * resolution reports them again to each request using it.
+     */
+    record Resolution(SemanticType type, List<String> diagnostics) {
+
+        static Resolution of(CompletionContext context, Supplier<SemanticType> resolver) {
+            List<String> reported = context.diagnostics();
+            int before = reported.size();
+            SemanticType type = resolver.get();
+            return new Resolution(type, List.copyOf(reported.subList(before, reported.size())));
+        }
+
+        SemanticType replay(CompletionContext context) {
+            context.diagnostics().addAll(diagnostics);
+            return type;
+        }
+    }
+}
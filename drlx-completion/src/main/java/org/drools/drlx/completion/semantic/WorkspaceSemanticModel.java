@@ -5,15 +5,24 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ClassLoaderTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.DocumentSummary;
+import org.drools.drlx.completion.document.RegionFingerprints;
 import org.drools.drlx.parser.DrlxParser;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,28 +30,202 @@ public class WorkspaceSemanticModel implements WorkspaceTypes {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkspaceSemanticModel.class);
 
-    private volatile CombinedTypeSolver typeSolver;
-    private volatile ClassLoader projectClassLoader;
+    /**
+     * How many rules' scope tables are kept, see {@link #scopeTable}.
+     */
+    private static final int SCOPE_TABLES = Integer.getInteger("drlx.scopes.cache", 512);
+    private static final int HEADERS = 32;
+    /**
+     * How many parameterized types' member types are kept, see {@link #memberTypes}.
+     */
+    private static final int MEMBER_TYPES = Integer.getInteger("drlx.memberTypes.cache", 1024);
+    /**
+     * How many parameterized types' bean models are kept, see {@link #beanModel}.
+     */
+    private static final int BEAN_MODELS = Integer.getInteger("drlx.beanModels.cache", 1024);
+    /**
+     * How many type declarations' member tables are kept, see {@link #memberTable}.
+     */
+    private static final int MEMBER_TABLES = Integer.getInteger("drlx.memberTables.cache", 1024);
+    /**
+     * Whether member tables and bean models of loadable classes are read with
+     * {@code java.lang.reflect} rather than JavaParser's reflection model.
+     */
+    static final boolean REFLECTIVE_MEMBERS = Boolean.parseBoolean(System.getProperty("drlx.members.reflection", "true"));
+
+    private record ScopeKey(long header, long rule) {
+    }
+
+    /**
+     * A classpath with the caches of what was resolved against it. A rebuild replaces
+     * the whole of it, so nothing resolved against the previous classpath can end up
+     * in the caches of the next one.
+     */
+    private static final class Generation {
+
+        final ClassLoader projectClassLoader;
+        final CombinedTypeSolver typeSolver;
+        final Map<ScopeKey, ScopeTable> scopeTables = lru(SCOPE_TABLES);
+        final Map<Long, TypeResolutions> typeResolutions = lru(HEADERS);
+        final Map<String, BeanModel> beanModels = lru(BEAN_MODELS);
+        final Map<String, MemberTable> memberTables = lru(MEMBER_TABLES);
+        final Map<String, MemberTypes> memberTypes = lru(MEMBER_TYPES);
+
+        Generation(ClassLoader projectClassLoader) {
+            this.projectClassLoader = projectClassLoader;
+            this.typeSolver = buildTypeSolver(projectClassLoader);
+        }
+    }
+
+    private volatile Generation generation;
 
     public WorkspaceSemanticModel(ClasspathProvider classpathProvider) {
         rebuild(classpathProvider);
     }
 
     public TypeSolver typeSolver() {
-        return typeSolver;
+        return generation.typeSolver;
     }
 
     public ClassLoader projectClassLoader() {
-        return projectClassLoader;
+        return generation.projectClassLoader;
     }
 
     public CompletionContext createContext(DrlxParser parser, ParseTree tree, int caretTokenIndex) {
-        return new CompletionContext(this, parser, tree, caretTokenIndex);
+        return createContext(parser, tree, caretTokenIndex, DocumentSummary.of(tree));
+    }
+
+    /**
+     * @param summary the summary of {@code tree}, shared by the contexts on it
+     */
+    public CompletionContext createContext(DrlxParser parser, ParseTree tree, int caretTokenIndex,
+                                           DocumentSummary summary) {
+        return new CompletionContext(this, parser, tree, caretTokenIndex, summary);
+    }
+
+    /**
+     * The scope table of {@code rule}, one of the rules of {@code summary} parsed from
+     * {@code tokens}. Tables are kept by the fingerprints of the header and the rule
+     * (see {@link RegionFingerprints}), so an edit elsewhere in the document, in another
+     * rule or a consequence of it, leaves the table of this one in place for the next
+     * version, and the completion windows on it.
+     */
+    public ScopeTable scopeTable(DocumentSummary summary, TokenStream tokens, RuleDeclarationContext rule) {
+        Map<ScopeKey, ScopeTable> scopeTables = generation.scopeTables;
+        ScopeKey key = new ScopeKey(summary.headerFingerprint(), RegionFingerprints.rule(summary, tokens, rule));
+        ScopeTable table = scopeTables.get(key);
+        if (table == null) {
+            table = ScopeTable.of(rule);
+            scopeTables.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * The bean properties of {@code type}, kept per parameterization and shared by
+     * every document and request. Empty for a type without a declaration.
+     */
+    public BeanModel beanModel(SemanticType type) {
+        if (!type.isReferenceType()) {
+            return BeanModel.EMPTY;
+        }
+        Generation current = generation;
+        try {
+            var refType = type.resolvedType().asReferenceType();
+            var typeDecl = refType.getTypeDeclaration().orElse(null);
+            if (typeDecl == null) {
+                return BeanModel.EMPTY;
+            }
+            String key = refType.describe();
+            BeanModel model = current.beanModels.get(key);
+            if (model == null) {
+                Class<?> clazz = typeDecl.getTypeParameters().isEmpty() ? loadedClass(current, typeDecl) : null;
+                model = clazz != null ? BeanModel.of(clazz, current.typeSolver) : BeanModel.of(refType, typeDecl);
+                current.beanModels.put(key, model);
+            }
+            return model;
+        } catch (Exception e) {
+            logger.debug("Cannot build the bean model of '{}': {}", type.resolvedType().describe(), e.getMessage());
+            return BeanModel.EMPTY;
+        }
+    }
+
+    /**
+     * The member completion items of {@code type}, shared by every document and
+     * request. Members don't depend on type arguments, so the
+     * table is kept per type declaration.
+     */
+    public MemberTable memberTable(ResolvedReferenceType type) {
+        Generation current = generation;
+        String key = type.getQualifiedName();
+        MemberTable table = current.memberTables.get(key);
+        if (table == null) {
+            Class<?> clazz = type.getTypeDeclaration().map(typeDecl -> loadedClass(current, typeDecl)).orElse(null);
+            table = clazz != null ? MemberTable.of(clazz) : MemberTable.of(type);
+            current.memberTables.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * The class of {@code typeDecl} from the project class loader of {@code generation},
+     * without initializing it, or {@code null} if {@link #REFLECTIVE_MEMBERS} is off or
+     * it can't be loaded.
+     */
+    private static Class<?> loadedClass(Generation generation, ResolvedReferenceTypeDeclaration typeDecl) {
+        if (!REFLECTIVE_MEMBERS) {
+            return null;
+        }
+        String binaryName = typeDecl.getPackageName().isEmpty()
+                ? typeDecl.getClassName().replace('.', '$')
+                : typeDecl.getPackageName() + "." + typeDecl.getClassName().replace('.', '$');
+        try {
+            return Class.forName(binaryName, false, generation.projectClassLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.debug("Cannot load '{}', using the JavaParser model: {}", binaryName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The member types of {@code type} with its type arguments substituted, kept per
+     * parameterization ({@code List<Order>} and {@code List<Line>} have their own).
+     */
+    public MemberTypes memberTypes(ResolvedReferenceType type) {
+        Map<String, MemberTypes> memberTypes = generation.memberTypes;
+        String key = type.describe();
+        MemberTypes types = memberTypes.get(key);
+        if (types == null) {
+            types = MemberTypes.of(type);
+            memberTypes.put(key, types);
+        }
+        return types;
+    }
+
+    /**
+     * The type resolutions under the header of {@code summary}.
+     */
+    TypeResolutions typeResolutions(DocumentSummary summary) {
+        return generation.typeResolutions.computeIfAbsent(summary.headerFingerprint(), h -> new TypeResolutions());
+    }
+
+    private static <K, V> Map<K, V> lru(int capacity) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        });
     }
 
+    /**
+     * Loads the classpath of {@code classpathProvider}. Scope tables, type resolutions,
+     * bean models, member tables and member types are kept until the classpath changes,
+     * that is until the next rebuild, which starts them afresh in one step: a lookup
+     * racing it fills the caches of the generation it started on.
+     */
     public void rebuild(ClasspathProvider classpathProvider) {
-        this.projectClassLoader = buildClassLoader(classpathProvider.classpathEntries());
-        this.typeSolver = buildTypeSolver(projectClassLoader);
+        this.generation = new Generation(buildClassLoader(classpathProvider.classpathEntries()));
     }
 
     private static CombinedTypeSolver buildTypeSolver(ClassLoader classLoader) {
@@ -0,0 +1,69 @@
+package org.drools.drlx.completion;
+
+import java.lang.management.ManagementFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal timing and allocation measurement for the {@code benchmark}-tagged tests
+ * ({@code mvn test -Pbenchmark}). Allocation is what the current thread allocated,
+ * as reported by the JVM, so the measured code must run on the calling thread.
+ */
+public final class Benchmarks {
+
+    private static final Logger logger = LoggerFactory.getLogger(Benchmarks.class);
+
+    private Benchmarks() {
+    }
+
+    public record Result(String name, double microsPerOp, double bytesPerOp) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f us/op, %.0f bytes/op", name, microsPerOp, bytesPerOp);
+        }
+    }
+
+    public static Result measure(String name, int warmup, int iterations, Runnable operation) {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+
+        Result result = new Result(name, nanos / 1000.0 / iterations, (double) bytes / iterations);
+        logger.info("{}", result);
+        return result;
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * A document of {@code rules} rules like {@code test-rule.drlx}'s, behind a unit header.
+     */
+    public static String largeDocument(int rules) {
+        StringBuilder text = new StringBuilder("""
+                import org.drools.drlx.domain.MyUnit;
+                unit MyUnit;
+
+                """);
+        for (int i = 0; i < rules; i++) {
+            text.append("rule R").append(i).append(" {\n")
+                    .append("    var p : /persons[ age > ").append(i).append(" ],\n")
+                    .append("    do { System.out.println(p); }\n")
+                    .append("}\n\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package org.drools.drlx.completion;
+
+import java.util.Set;
+
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import org.drools.drlx.completion.document.CompletionWindow;
+import org.drools.drlx.completion.document.DocumentSnapshot;
+import org.drools.drlx.completion.document.DrlxDocumentParser;
+import org.drools.drlx.completion.document.Rope;
+import org.drools.drlx.completion.semantic.CurrentClassloaderProvider;
+import org.drools.drlx.completion.semantic.MemberCompletionProvider;
+import org.drools.drlx.completion.semantic.SentinelExpressionTypeResolver;
+import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
+import org.drools.drlx.parser.DrlxParser;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.drlx.completion.DrlxCompletionHelper.completionItemStrings;
+
+class CandidatesCacheTest {
+
+    private final DrlxCompletionHelper helper = new DrlxCompletionHelper(
+            new WorkspaceSemanticModel(new CurrentClassloaderProvider()),
+            new SentinelExpressionTypeResolver(),
+            new MemberCompletionProvider());
+
+    @Test
+    void sameRulePrefixIsCollectedOnce() {
+        String before = """
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons[ age > 18 ],
+                    do { }
+                }
+
+                rule R2 {
+                    var a : /
+                """;
+        // Different identifiers, whitespace and comments, other rules before: same token types in the window
+        String after = """
+                unit OtherUnit;
+
+                rule First {
+                    var x : /xs,
+                }
+
+                // second rule
+                rule   Second {
+                    var b : /
+                """;
+
+        var first = completionItemStrings(helper.getCompletionItems(before, new Position(8, 13)));
+        var second = completionItemStrings(helper.getCompletionItems(after, new Position(8, 13)));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(helper.candidatesCache().misses()).isEqualTo(1);
+        assertThat(helper.candidatesCache().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void differentPrefixIsCollectedAgain() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /as,
+                }
+                """;
+
+        helper.getCompletionItems(text, new Position(3, 4));
+        helper.getCompletionItems(text, new Position(3, 12));
+
+        assertThat(helper.candidatesCache().misses()).isEqualTo(2);
+        assertThat(helper.candidatesCache().hits()).isZero();
+    }
+
+    @Test
+    void cachedSiteMatchesAnalyzer() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons[ age > 18 ],
+                }
+                """;
+        CompletionWindow window = CompletionWindow.parse(new DrlxDocumentParser(), Rope.of(text), new Position(3, 22));
+        CandidatesCache cache = new CandidatesCache(Set.of(DrlxParser.RULE_identifier), Tokens.IGNORED);
+
+        CandidatesCache.Entry entry = cache.get(window.parser(), window.caretTokenIndex());
+
+        assertThat(entry.site())
+                .isEqualTo(CompletionContextAnalyzer.analyze(entry.candidates(), window.parser(), window.caretTokenIndex()))
+                .isEqualTo(CompletionSite.CONSTRAINT_EXPRESSION);
+        assertThat(cache.get(window.parser(), window.caretTokenIndex())).isSameAs(entry);
+    }
+
+    @Test
+    void scopedToEnclosingRuleMatchesFullWalk() {
+        DocumentSnapshot snapshot = new DrlxDocumentParser().parse("file:///rules.drlx", 1, DrlxC3CandidatesTest.TEXT);
+        CandidatesCache full = new CandidatesCache(Set.of(DrlxParser.RULE_identifier), Tokens.IGNORED);
+        CandidatesCache scoped = new CandidatesCache(Set.of(DrlxParser.RULE_identifier), Tokens.IGNORED);
+
+        int checked = 0;
+        for (int line = 2; line < 17; line++) {
+            for (int character : new int[] {0, 4, 9, 14, 20, 25}) {
+                int caret = snapshot.positions().caretTokenIndex(new Position(line, character));
+                RuleDeclarationContext rule = DrlxCompletionHelper.enclosingRule(snapshot.summary(), caret);
+                if (rule == null) {
+                    continue;
+                }
+                CandidatesCache.Entry expected = full.get(snapshot.parser(), caret);
+                CandidatesCache.Entry actual = scoped.get(snapshot.parser(), caret, rule);
+                assertThat(actual.candidates().tokens.keySet())
+                        .as("line %d, character %d", line, character)
+                        .isEqualTo(expected.candidates().tokens.keySet());
+                assertThat(actual.site()).as("line %d, character %d", line, character).isEqualTo(expected.site());
+                checked++;
+            }
+        }
+        assertThat(checked).isGreaterThan(20);
+    }
+
+    @Test
+    void noEnclosingRuleOutsideRules() {
+        DocumentSnapshot snapshot = new DrlxDocumentParser().parse("file:///rules.drlx", 1, DrlxC3CandidatesTest.TEXT);
+
+        // Start of the file, and on the 'rule' keyword itself
+        assertThat(DrlxCompletionHelper.enclosingRule(snapshot.summary(),
+                snapshot.positions().caretTokenIndex(new Position(0, 0)))).isNull();
+        assertThat(DrlxCompletionHelper.enclosingRule(snapshot.summary(),
+                snapshot.positions().caretTokenIndex(new Position(2, 0)))).isNull();
+        assertThat(DrlxCompletionHelper.enclosingRule(snapshot.summary(),
+                snapshot.positions().caretTokenIndex(new Position(2, 5))).identifier().getText()).isEqualTo("R1");
+    }
+}
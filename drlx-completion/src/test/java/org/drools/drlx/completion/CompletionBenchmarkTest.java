@@ -0,0 +1,63 @@
+package org.drools.drlx.completion;
+
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.drools.drlx.completion.document.DocumentSnapshot;
+import org.drools.drlx.completion.document.DrlxDocumentParser;
+import org.drools.drlx.completion.document.Rope;
+import org.drools.drlx.completion.semantic.CurrentClassloaderProvider;
+import org.drools.drlx.completion.semantic.MemberCompletionProvider;
+import org.drools.drlx.completion.semantic.SentinelExpressionTypeResolver;
+import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Completion latency and allocation on a large document. Compare runs with
+ * {@code -Ddrlx.recognizer.pool=false} to see what lexer/parser pooling saves.
+ */
+@Tag("benchmark")
+class CompletionBenchmarkTest {
+
+    private static final int RULES = 2_000;
+
+    private final WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+    private final DrlxCompletionHelper helper = new DrlxCompletionHelper(
+            model,
+            new SentinelExpressionTypeResolver(),
+            new MemberCompletionProvider(model));
+
+    private final String text = Benchmarks.largeDocument(RULES);
+    // At 'age' in the constraint of the middle rule
+    private final Position caret = new Position(4 + (RULES / 2) * 5, 22);
+
+    @Test
+    void completionOnText() {
+        Benchmarks.Result result = Benchmarks.measure("completion (text)", 20, 100,
+                () -> helper.getCompletionItems(text, caret));
+
+        assertThat(result.microsPerOp()).isPositive();
+    }
+
+    @Test
+    void completionOnSnapshot() {
+        DocumentSnapshot snapshot = new DrlxDocumentParser().parse("file:///large.drlx", 1, text);
+
+        Benchmarks.Result result = Benchmarks.measure("completion (snapshot)", 20, 200,
+                () -> helper.getCompletionItems(snapshot, caret));
+
+        assertThat(result.microsPerOp()).isPositive();
+    }
+
+    @Test
+    void lexing() {
+        DrlxDocumentParser parser = new DrlxDocumentParser();
+        Rope rope = Rope.of(text);
+
+        Benchmarks.Result result = Benchmarks.measure("lex", 10, 50, () -> parser.lex(rope));
+
+        assertThat(result.bytesPerOp()).isPositive();
+    }
+}
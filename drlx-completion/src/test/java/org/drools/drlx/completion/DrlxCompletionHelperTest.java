@@ -438,4 +438,40 @@ class DrlxCompletionHelperTest {
             }
         }
     }
+
+    @Test
+    void dotAccess_skipsCandidateCollection() {
+        String text = """
+                import org.drools.drlx.domain.MyUnit;
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons,
+                    do { p. }
+                }
+                """;
+
+        List<CompletionItem> result = helper.getCompletionItems(text, new Position(5, 11)); // after 'p.'
+
+        assertThat(completionItemStrings(result)).contains("age", "name", "getAge", "getName");
+        assertThat(helper.candidatesCache().misses()).isZero();
+        assertThat(helper.candidatesCache().hits()).isZero();
+    }
+
+    @Test
+    void exclDotAccess_offersMembers() {
+        String text = """
+                import org.drools.drlx.domain.MyUnit;
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons,
+                    do { p!. }
+                }
+                """;
+
+        List<CompletionItem> result = helper.getCompletionItems(text, new Position(5, 12)); // after 'p!.'
+
+        assertThat(completionItemStrings(result)).contains("age", "name");
+    }
 }
@@ -0,0 +1,149 @@
+package org.drools.drlx.completion;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import org.drools.drlx.completion.TopLevelKeywords.Place;
+import org.drools.drlx.completion.document.DocumentSnapshot;
+import org.drools.drlx.completion.document.DrlxDocumentParser;
+import org.drools.drlx.completion.document.PositionIndex;
+import org.drools.drlx.completion.document.Rope;
+import org.drools.drlx.completion.semantic.CurrentClassloaderProvider;
+import org.drools.drlx.completion.semantic.MemberCompletionProvider;
+import org.drools.drlx.completion.semantic.SentinelExpressionTypeResolver;
+import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.drlx.completion.DrlxCompletionHelper.completionItemStrings;
+
+/**
+ * The lexer-only classifier must agree with the c3-based results, see {@link DrlxC3CandidatesTest}.
+ */
+class TopLevelKeywordsTest {
+
+    private final DrlxCompletionHelper helper = new DrlxCompletionHelper(
+            new WorkspaceSemanticModel(new CurrentClassloaderProvider()),
+            new SentinelExpressionTypeResolver(),
+            new MemberCompletionProvider());
+
+    private static Place placeAt(String text, int line, int character) {
+        Rope rope = Rope.of(text);
+        List<Token> tokens = new DrlxDocumentParser().lex(rope);
+        return TopLevelKeywords.classify(tokens, PositionIndex.of(rope, tokens).caretTokenIndex(new Position(line, character)));
+    }
+
+    // --- Same positions as DrlxC3CandidatesTest ---
+
+    @Test
+    void compilationUnitStart() {
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 0, 0)).isEqualTo(Place.DOCUMENT_START);
+
+        List<String> items = completionItemStrings(helper.getCompletionItems(DrlxC3CandidatesTest.TEXT, new Position(0, 0)));
+        assertThat(items).contains("package", "import", "unit", "class");
+    }
+
+    @Test
+    void beforeRule() {
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 2, 0)).isEqualTo(Place.AFTER_UNIT);
+
+        List<String> items = completionItemStrings(helper.getCompletionItems(DrlxC3CandidatesTest.TEXT, new Position(2, 0)));
+        assertThat(items).contains("rule", "window");
+        assertThat(items).doesNotContain("not", "exists", "do");
+    }
+
+    @Test
+    void afterRuleKeyword() {
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 2, 5)).isEqualTo(Place.RULE_NAME);
+
+        List<String> items = completionItemStrings(helper.getCompletionItems(DrlxC3CandidatesTest.TEXT, new Position(2, 5)));
+        assertThat(items).containsOnly("IDENTIFIER");
+    }
+
+    @Test
+    void betweenRules() {
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 14, 0)).isEqualTo(Place.AFTER_RULE);
+
+        List<String> items = completionItemStrings(helper.getCompletionItems(DrlxC3CandidatesTest.TEXT, new Position(14, 0)));
+        assertThat(items).contains("rule");
+        assertThat(items).doesNotContain("not", "exists", "do");
+    }
+
+    // --- Positions left to the full path ---
+
+    @Test
+    void notTopLevel() {
+        // Rule items, the rule's '{', a constraint, a consequence
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 3, 4)).isNull();
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 2, 8)).isNull();
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 3, 24)).isNull();
+        assertThat(placeAt(DrlxC3CandidatesTest.TEXT, 9, 8)).isNull();
+    }
+
+    @Test
+    void halfTypedKeywordIsNotClassified() {
+        assertThat(placeAt("unit MyUnit;\n\nru", 2, 2)).isNull();
+        assertThat(placeAt("pack", 0, 4)).isNull();
+    }
+
+    @Test
+    void javaClassIsNotARule() {
+        assertThat(placeAt("class Foo {\n}\n", 2, 0)).isNull();
+        assertThat(placeAt("import java.util.List;\n", 1, 0)).isNull();
+    }
+
+    @Test
+    void snapshotScanFromEnclosingRuleAgrees() {
+        DocumentSnapshot snapshot = new DrlxDocumentParser().parse("file:///rules.drlx", 1, DrlxC3CandidatesTest.TEXT);
+
+        for (int caret = 0; caret < snapshot.tokens().size(); caret++) {
+            assertThat(TopLevelKeywords.classify(snapshot, caret))
+                    .as("caret %d", caret)
+                    .isEqualTo(TopLevelKeywords.classify(snapshot.tokens(), caret));
+        }
+    }
+
+    // --- Same items as the full path ---
+
+    @Test
+    void matchesFullCompletion() {
+        String[] texts = {
+                DrlxC3CandidatesTest.TEXT,
+                """
+                package org.example;
+
+                import org.drools.drlx.domain.MyUnit;
+                unit MyUnit;
+
+                // first rule
+                rule R1 {
+                    var p : /persons,
+                }
+
+                rule
+                """,
+                "/* header */\n"
+        };
+        int checked = 0;
+        for (String text : texts) {
+            String[] lines = text.split("\n", -1);
+            for (int line = 0; line < lines.length; line++) {
+                for (int character = 0; character <= lines[line].length(); character++) {
+                    if (placeAt(text, line, character) == null) {
+                        continue;
+                    }
+                    Position caret = new Position(line, character);
+                    List<CompletionItem> expected = helper.fullCompletionItems(text, caret);
+                    assertThat(completionItemStrings(helper.getCompletionItems(text, caret)))
+                            .as("%d:%d in %s", line, character, text)
+                            .containsExactlyInAnyOrderElementsOf(completionItemStrings(expected));
+                    checked++;
+                }
+            }
+        }
+        assertThat(checked).isGreaterThan(10);
+    }
+}
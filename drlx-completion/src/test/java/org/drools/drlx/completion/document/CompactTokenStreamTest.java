@@ -0,0 +1,119 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactTokenStreamTest {
+
+    private static final String TEXT = """
+            unit MyUnit;
+
+            // a comment
+            rule R1 {
+                var p : /persons[ age > 18 ],
+                do { System.out.println(p); }
+            }
+            """;
+
+    private final Rope content = Rope.of(TEXT);
+    private final List<Token> lexed = new DrlxDocumentParser().lex(content);
+
+    private CommonTokenStream commonStream() {
+        CommonTokenStream stream = new CommonTokenStream(new ListTokenSource(lexed));
+        stream.fill();
+        return stream;
+    }
+
+    @Test
+    void bufferKeepsTokenFields() {
+        CompactTokenBuffer buffer = CompactTokenBuffer.of(lexed, content);
+
+        assertThat(buffer.size()).isEqualTo(lexed.size());
+        for (int i = 0; i < lexed.size(); i++) {
+            Token expected = lexed.get(i);
+            Token actual = buffer.asList().get(i);
+            assertThat(actual.getType()).isEqualTo(expected.getType());
+            assertThat(actual.getChannel()).isEqualTo(expected.getChannel());
+            assertThat(actual.getStartIndex()).isEqualTo(expected.getStartIndex());
+            assertThat(actual.getStopIndex()).isEqualTo(expected.getStopIndex());
+            assertThat(actual.getLine()).isEqualTo(expected.getLine());
+            assertThat(actual.getCharPositionInLine()).isEqualTo(expected.getCharPositionInLine());
+            assertThat(actual.getTokenIndex()).isEqualTo(i);
+            assertThat(actual.getText()).isEqualTo(expected.getText());
+            assertThat(buffer.text(i)).isEqualTo(expected.getText());
+        }
+    }
+
+    @Test
+    void streamSeesDefaultChannelLikeCommonTokenStream() {
+        CommonTokenStream expected = commonStream();
+        CompactTokenStream actual = new CompactTokenStream(CompactTokenBuffer.of(lexed, content));
+
+        while (true) {
+            assertThat(actual.index()).isEqualTo(expected.index());
+            for (int k : new int[] {1, 2, 5}) {
+                assertThat(actual.LA(k)).isEqualTo(expected.LA(k));
+                assertThat(actual.LT(k).getTokenIndex()).isEqualTo(expected.LT(k).getTokenIndex());
+            }
+            Token previous = expected.LT(-1);
+            assertThat(actual.LT(-1) == null ? null : actual.LT(-1).getTokenIndex())
+                    .isEqualTo(previous == null ? null : previous.getTokenIndex());
+            if (expected.LA(1) == Token.EOF) {
+                break;
+            }
+            expected.consume();
+            actual.consume();
+        }
+    }
+
+    @Test
+    void tokenSourceHandsOutTheTokensInOrder() {
+        CompactTokenStream stream = new CompactTokenStream(CompactTokenBuffer.of(lexed, content));
+
+        // As any consumer of a token source would read it
+        CommonTokenStream reread = new CommonTokenStream(stream.getTokenSource());
+        reread.fill();
+
+        assertThat(reread.getTokens()).extracting(Token::getText)
+                .containsExactlyElementsOf(lexed.stream().map(Token::getText).toList());
+        assertThat(stream.getTokenSource().nextToken().getType()).isEqualTo(lexed.get(0).getType());
+    }
+
+    @Test
+    void seekSkipsOffChannelTokens() {
+        CommonTokenStream expected = commonStream();
+        CompactTokenStream actual = new CompactTokenStream(CompactTokenBuffer.of(lexed, content));
+
+        for (int i = 0; i < lexed.size(); i++) {
+            expected.seek(i);
+            actual.seek(i);
+            assertThat(actual.index()).isEqualTo(expected.index());
+        }
+    }
+
+    @Test
+    void text() {
+        CommonTokenStream expected = commonStream();
+        CompactTokenStream actual = new CompactTokenStream(CompactTokenBuffer.of(lexed, content));
+
+        assertThat(actual.getText()).isEqualTo(expected.getText());
+        assertThat(actual.getText(Interval.of(3, 12))).isEqualTo(expected.getText(Interval.of(3, 12)));
+    }
+
+    @Test
+    void snapshotKeepsCompactTokens() {
+        DocumentSnapshot snapshot = new DrlxDocumentParser().parse("file:///test.drlx", 1, TEXT);
+
+        assertThat(snapshot.tokenStream()).isInstanceOf(CompactTokenStream.class);
+        assertThat(snapshot.tokens()).hasSameSizeAs(lexed);
+        assertThat(snapshot.tokens().get(3).getText()).isEqualTo(lexed.get(3).getText());
+        assertThat(snapshot.parseTree().getText()).contains("ruleR1{");
+    }
+}
@@ -0,0 +1,91 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompletionErrorStrategyTest {
+
+    private static DrlxParser parserOn(List<Token> tokens) {
+        CommonTokenStream tokenStream = new CommonTokenStream(new ListTokenSource(tokens));
+        tokenStream.fill();
+        return Recognizers.parser(tokenStream);
+    }
+
+    private static int indexOf(List<Token> tokens, String text) {
+        return tokens.stream().filter(t -> t.getText().equals(text)).findFirst().orElseThrow().getTokenIndex();
+    }
+
+    @Test
+    void resynchronisationStopsAtCaret() {
+        List<Token> tokens = new DrlxDocumentParser().lex(Rope.of("a b c d e"));
+        DrlxParser parser = parserOn(tokens);
+        RecoveryStatistics statistics = new RecoveryStatistics();
+        int caret = indexOf(tokens, "d");
+        CompletionErrorStrategy strategy = new CompletionErrorStrategy(caret, statistics);
+
+        strategy.consumeUntil(parser, new IntervalSet());
+
+        assertThat(parser.getCurrentToken().getText()).isEqualTo("d");
+        assertThat(statistics.skippedTokens()).isEqualTo(3);
+        assertThat(statistics.caretStops()).isEqualTo(1);
+    }
+
+    @Test
+    void resynchronisationStopsAtSyncToken() {
+        List<Token> tokens = new DrlxDocumentParser().lex(Rope.of("a b , c d"));
+        DrlxParser parser = parserOn(tokens);
+        RecoveryStatistics statistics = new RecoveryStatistics();
+        CompletionErrorStrategy strategy = new CompletionErrorStrategy(tokens.size(), statistics);
+
+        strategy.consumeUntil(parser, strategy.getErrorRecoverySet(parser));
+
+        assertThat(parser.getCurrentToken().getType()).isEqualTo(DrlxLexer.COMMA);
+        assertThat(statistics.caretStops()).isZero();
+    }
+
+    @Test
+    void recoverySetHasDrlxSyncTokens() {
+        DrlxParser parser = parserOn(new DrlxDocumentParser().lex(Rope.of("")));
+        CompletionErrorStrategy strategy = new CompletionErrorStrategy(0, new RecoveryStatistics());
+
+        IntervalSet recoverySet = strategy.getErrorRecoverySet(parser);
+
+        assertThat(recoverySet.toList()).contains(DrlxLexer.LBRACE, DrlxLexer.RBRACE, DrlxLexer.SEMI,
+                DrlxLexer.COMMA, DrlxLexer.RBRACK);
+    }
+
+    @Test
+    void completionWindowRecordsRecoveries() {
+        RecoveryStatistics statistics = CompletionWindow.recoveryStatistics();
+        long recoveries = statistics.recoveries() + statistics.inlineRecoveries();
+
+        CompletionWindow window = CompletionWindow.parse(new DrlxDocumentParser(),
+                Rope.of("unit MyUnit;\nrule R1 {\n    var a : /as,\n    do { System.\n"), new Position(3, 16));
+
+        assertThat(window.parser().getNumberOfSyntaxErrors()).isPositive();
+        assertThat(statistics.recoveries() + statistics.inlineRecoveries()).isGreaterThan(recoveries);
+    }
+
+    @Test
+    void noRecoveryOnValidInput() {
+        RecoveryStatistics statistics = new RecoveryStatistics();
+        List<Token> tokens = new DrlxDocumentParser().lex(Rope.of("unit MyUnit;\nrule R1 {\n}\n"));
+
+        CompletionWindow window = CompletionWindow.parse(new DrlxDocumentParser(), tokens, 4,
+                caret -> new CompletionErrorStrategy(caret, statistics));
+
+        assertThat(window.parser().getNumberOfSyntaxErrors()).isZero();
+        assertThat(statistics.recoveries()).isZero();
+        assertThat(statistics.skippedTokens()).isZero();
+    }
+}
@@ -0,0 +1,105 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Token;
+import org.drools.drlx.completion.Benchmarks;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Completion window parses of the inputs of {@code DrlxCompletionHelperIncompleteCodeTest},
+ * recovering with {@link DefaultErrorStrategy} and with {@link CompletionErrorStrategy}.
+ */
+@Tag("benchmark")
+class CompletionRecoveryBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompletionRecoveryBenchmarkTest.class);
+
+    private record Input(String text, Position caret) {
+    }
+
+    private static final List<Input> INPUTS = List.of(
+            new Input("""
+                    import org.drools.drlx.domain.MyUnit;
+                    unit MyUnit;
+
+                    rule R1 {
+                        var a : /
+                    """, new Position(4, 13)),
+            new Input("""
+                    unit MyUnit;
+
+                    rule R1 {
+                        var a : /as,
+                        do { System.out.
+                    """, new Position(4, 20)),
+            new Input("""
+                    import java.util.ArrayList;
+
+                    unit MyUnit;
+
+                    rule R1 {
+                        var a : /as,
+                        do {
+                            Object list = new Object();
+                            list#ArrayList#.
+                    """, new Position(8, 24)),
+            new Input("""
+                    import org.drools.drlx.domain.MyUnit;
+                    unit MyUnit;
+
+                    rule R1 {
+                        var total = sum(/persons.age),
+                        do { total.
+                    """, new Position(5, 15)),
+            new Input("""
+                    import org.drools.drlx.domain.Person;
+                    import org.drools.drlx.domain.Address;
+
+                    unit MyUnit;
+
+                    rule R1 {
+                        var a : /as,
+                        do {
+                            Person p = new Person("John", 0, new Address("Tokyo"));
+                            p.address.
+                    """, new Position(9, 18)));
+
+    private final DrlxDocumentParser documentParser = new DrlxDocumentParser();
+
+    private Benchmarks.Result measure(String name, IntFunction<ANTLRErrorStrategy> recovery) {
+        List<List<Token>> tokens = INPUTS.stream().map(input -> documentParser.lex(Rope.of(input.text()))).toList();
+        int[] carets = new int[INPUTS.size()];
+        for (int i = 0; i < carets.length; i++) {
+            carets[i] = PositionIndex.of(Rope.of(INPUTS.get(i).text()), tokens.get(i)).caretTokenIndex(INPUTS.get(i).caret());
+        }
+        return Benchmarks.measure(name, 200, 2_000, () -> {
+            for (int i = 0; i < carets.length; i++) {
+                CompletionWindow.parse(documentParser, tokens.get(i), carets[i], recovery);
+            }
+        });
+    }
+
+    @Test
+    void defaultVersusCompletionStrategy() {
+        Benchmarks.Result defaults = measure("recovery (default)", caret -> new DefaultErrorStrategy());
+
+        RecoveryStatistics statistics = new RecoveryStatistics();
+        Benchmarks.Result completion = measure("recovery (completion)",
+                caret -> new CompletionErrorStrategy(caret, statistics));
+        logger.info("{}", statistics);
+
+        assertThat(defaults.microsPerOp()).isPositive();
+        assertThat(completion.microsPerOp()).isPositive();
+        assertThat(statistics.recoveries() + statistics.inlineRecoveries()).isPositive();
+    }
+}
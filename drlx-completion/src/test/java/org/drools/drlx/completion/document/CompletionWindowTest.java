@@ -0,0 +1,113 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.drools.drlx.completion.DrlxCompletionHelper;
+import org.drools.drlx.completion.semantic.CurrentClassloaderProvider;
+import org.drools.drlx.completion.semantic.MemberCompletionProvider;
+import org.drools.drlx.completion.semantic.SentinelExpressionTypeResolver;
+import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.drlx.completion.DrlxCompletionHelper.completionItemStrings;
+
+class CompletionWindowTest {
+
+    private static final String TEXT = """
+            import java.util.List;
+
+            unit MyUnit;
+
+            rule R1 {
+                var p : /persons[ age > 18 ],
+                do { System.out.println(p); }
+            }
+
+            rule R2 {
+                var a : /addresses[ city == "Tokyo" ],
+                do { System.out.println(a); }
+            }
+
+            rule R3 {
+                var p : /persons,
+                do { }
+            }
+            """;
+
+    private final DrlxDocumentParser parser = new DrlxDocumentParser();
+
+    @Test
+    void parsesHeaderAndEnclosingRuleOnly() {
+        CompletionWindow window = CompletionWindow.parse(parser, Rope.of(TEXT), new Position(10, 24));
+
+        String parsed = window.parseTree().getText();
+        assertThat(parsed).startsWith("importjava.util.List;unitMyUnit;ruleR2{");
+        assertThat(parsed).doesNotContain("R1", "R3");
+        assertThat(window.parser().getTokenStream().get(window.caretTokenIndex()).getText()).isEqualTo("city");
+    }
+
+    @Test
+    void caretInHeader() {
+        CompletionWindow window = CompletionWindow.parse(parser, Rope.of(TEXT), new Position(2, 0));
+
+        assertThat(window.parseTree().getText()).startsWith("importjava.util.List;unitMyUnit;").doesNotContain("rule");
+        assertThat(window.parser().getTokenStream().get(window.caretTokenIndex()).getText()).isEqualTo("unit");
+    }
+
+    @Test
+    void ruleKeywordInsideBracesIsNotABoundary() {
+        // 'rule' inside braces is not a rule boundary, so the window keeps the whole unclosed rule
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons,
+                    do { rule
+                """;
+
+        CompletionWindow window = CompletionWindow.parse(parser, Rope.of(text), new Position(4, 13));
+
+        assertThat(window.parseTree().getText()).contains("ruleR1{");
+    }
+
+    @Test
+    void boundsFromSummaryMatchFullScan() {
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 1, TEXT);
+        TokenTable tokens = TokenTable.of(snapshot.tokens());
+
+        for (int caret = 0; caret < snapshot.tokens().size(); caret++) {
+            assertThat(CompletionWindow.bounds(snapshot.tokenTable(), caret, snapshot.summary()))
+                    .as("caret %d", caret)
+                    .isEqualTo(CompletionWindow.bounds(tokens, caret));
+        }
+    }
+
+    @Test
+    void doesNotModifySnapshotTokens() {
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 1, TEXT);
+        int r3 = snapshot.positions().caretTokenIndex(new Position(14, 5));
+
+        CompletionWindow.parse(parser, snapshot, new Position(14, 5));
+
+        assertThat(snapshot.tokens().get(r3).getTokenIndex()).isEqualTo(r3);
+        assertThat(snapshot.tokens().get(r3).getText()).isEqualTo("R3");
+    }
+
+    @Test
+    void sameCompletionsAsWholeDocument() {
+        WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+        DrlxCompletionHelper windowed = new DrlxCompletionHelper(
+                model, new SentinelExpressionTypeResolver(), new MemberCompletionProvider(), true);
+        DrlxCompletionHelper whole = new DrlxCompletionHelper(
+                model, new SentinelExpressionTypeResolver(), new MemberCompletionProvider(), false);
+
+        for (Position caret : List.of(new Position(0, 0), new Position(4, 0), new Position(4, 5),
+                new Position(5, 13), new Position(10, 24), new Position(11, 9), new Position(17, 0))) {
+            assertThat(completionItemStrings(windowed.getCompletionItems(TEXT, caret)))
+                    .as("caret %s", caret)
+                    .containsExactlyInAnyOrderElementsOf(completionItemStrings(whole.getCompletionItems(TEXT, caret)));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.drools.drlx.completion.document;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DfaMemoryManagerTest {
+
+    private static final String DRLX = """
+            unit MyUnit;
+
+            rule R1 {
+                var p : /persons[ age > 18 ],
+                do { System.out.println(p); }
+            }
+            """;
+
+    @Test
+    void metricsReflectParses() {
+        new DrlxDocumentParser().parse("file:///rules.drlx", 1, DRLX);
+
+        DfaMemoryManager.DfaMetrics metrics = new DfaMemoryManager(0).metrics();
+        assertThat(metrics.parserStates()).isPositive();
+        assertThat(metrics.lexerStates()).isPositive();
+        assertThat(metrics.configs()).isPositive();
+        assertThat(metrics.estimatedBytes()).isPositive();
+    }
+
+    @Test
+    void clearsOnceThresholdIsCrossed() {
+        new DrlxDocumentParser().parse("file:///rules.drlx", 1, DRLX);
+        DfaMemoryManager manager = new DfaMemoryManager(0);
+        assertThat(manager.metrics().states()).isPositive();
+
+        // Disabled: nothing is cleared
+        manager.withDfa(() -> null);
+        assertThat(manager.metrics().clears()).isZero();
+
+        manager.setMaxStates(1);
+        manager.withDfa(() -> null);
+        assertThat(manager.metrics().clears()).isEqualTo(1);
+        assertThat(manager.metrics().states()).isZero();
+
+        // Parsing keeps working on the cleared DFA
+        DocumentSnapshot snapshot = new DrlxDocumentParser().parse("file:///rules.drlx", 2, DRLX);
+        assertThat(snapshot.syntaxErrors()).isEmpty();
+    }
+}
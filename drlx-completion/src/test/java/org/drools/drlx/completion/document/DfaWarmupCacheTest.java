@@ -0,0 +1,55 @@
+package org.drools.drlx.completion.document;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DfaWarmupCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String DRLX = """
+            unit MyUnit;
+
+            rule R1 {
+                var p : /persons[ age > 18 ],
+                do { System.out.println(p); }
+            }
+            """;
+
+    @Test
+    void savedInputIsReplayedByNewInstance() {
+        Path file = tempDir.resolve("cache/dfa-warmup.bin");
+        DfaWarmupCache cache = new DfaWarmupCache(file);
+        cache.record(new DrlxDocumentParser().parse("file:///rules.drlx", 1, DRLX));
+        cache.save();
+
+        assertThat(file).exists();
+        assertThat(new DfaWarmupCache(file).preload()).isTrue();
+    }
+
+    @Test
+    void missingFileIsNotReplayed() {
+        assertThat(new DfaWarmupCache(tempDir.resolve("none.bin")).preload()).isFalse();
+    }
+
+    @Test
+    void cacheForAnotherGrammarIsIgnored() throws IOException {
+        Path file = tempDir.resolve("dfa-warmup.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(1);
+            out.writeUTF("another-grammar");
+            out.writeInt(0);
+            out.writeInt(0);
+        }
+
+        assertThat(new DfaWarmupCache(file).preload()).isFalse();
+    }
+}
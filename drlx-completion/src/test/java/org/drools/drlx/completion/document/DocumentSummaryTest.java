@@ -0,0 +1,106 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentSummaryTest {
+
+    private static final String TEXT = """
+            import org.drools.drlx.domain.Person;
+            import org.drools.drlx.domain.MyUnit;
+            import java.util.*;
+            unit MyUnit;
+
+            rule R1 {
+                var p : /persons[ age > 18 ],
+                do { System.out.println(p); }
+            }
+
+            rule R2 {
+                var a : /addresses,
+                do { System.out.println(a); }
+            }
+            """;
+
+    private final DocumentSnapshot snapshot = new DrlxDocumentParser().parse("file:///summary.drlx", 1, TEXT);
+
+    private int tokenIndexOf(String text) {
+        List<Token> tokens = snapshot.tokens();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i).getText().equals(text)) {
+                return i;
+            }
+        }
+        throw new AssertionError("No token " + text);
+    }
+
+    @Test
+    void imports() {
+        DocumentSummary summary = snapshot.summary();
+
+        assertThat(summary.imports()).containsExactly(
+                "org.drools.drlx.domain.Person", "org.drools.drlx.domain.MyUnit", "java.util");
+        assertThat(summary.starImports()).containsExactly("java.util");
+        assertThat(summary.importedType("Person")).isEqualTo("org.drools.drlx.domain.Person");
+        assertThat(summary.importedType("List")).isNull();
+    }
+
+    @Test
+    void unitClassName() {
+        assertThat(snapshot.summary().unitClassName()).isEqualTo("MyUnit");
+        assertThat(new DrlxDocumentParser().parse(null, 0, "rule R1 {\n}\n").summary().unitClassName()).isNull();
+    }
+
+    @Test
+    void enclosingRule() {
+        DocumentSummary summary = snapshot.summary();
+
+        assertThat(summary.rules()).hasSize(2);
+        assertThat(summary.enclosingRule(tokenIndexOf("unit"))).isNull();
+        assertThat(ruleName(summary.enclosingRule(tokenIndexOf("persons")))).isEqualTo("R1");
+        assertThat(ruleName(summary.enclosingRule(tokenIndexOf("R2")))).isEqualTo("R2");
+        assertThat(ruleName(summary.enclosingRule(tokenIndexOf("addresses")))).isEqualTo("R2");
+        // Past the last rule: the one being typed
+        assertThat(ruleName(summary.enclosingRule(snapshot.tokens().size() - 1))).isEqualTo("R2");
+    }
+
+    @Test
+    void entryPointNames() {
+        assertThat(snapshot.summary().entryPointNames()).containsExactly("persons", "addresses");
+    }
+
+    @Test
+    void builtOncePerVersion() {
+        assertThat(snapshot.summary()).isSameAs(snapshot.summary());
+    }
+
+    @Test
+    void completionWindowSummary() {
+        CompletionWindow window = CompletionWindow.parse(new DrlxDocumentParser(), snapshot, new Position(11, 15));
+
+        assertThat(window.summary().imports()).isEqualTo(snapshot.summary().imports());
+        assertThat(window.summary().unitClassName()).isEqualTo("MyUnit");
+        assertThat(window.summary().rules()).hasSize(1);
+        assertThat(ruleName(window.summary().enclosingRule(window.caretTokenIndex()))).isEqualTo("R2");
+    }
+
+    @Test
+    void noCompilationUnit() {
+        DocumentSummary summary = DocumentSummary.of(null);
+
+        assertThat(summary.imports()).isEmpty();
+        assertThat(summary.unitClassName()).isNull();
+        assertThat(summary.enclosingRule(0)).isNull();
+        assertThat(summary.entryPointNames()).isEmpty();
+    }
+
+    private static String ruleName(RuleDeclarationContext rule) {
+        return rule == null ? null : rule.identifier().getText();
+    }
+}
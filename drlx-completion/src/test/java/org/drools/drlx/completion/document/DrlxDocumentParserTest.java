@@ -0,0 +1,215 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.drools.drlx.parser.DrlxParser;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DrlxDocumentParserTest {
+
+    private final DrlxDocumentParser parser = new DrlxDocumentParser();
+
+    @Test
+    void parsesTokensAndTree() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /as,
+                    do { System.out.println(a); }
+                }
+                """;
+
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 3, text);
+
+        assertThat(snapshot.uri()).isEqualTo("file:///rules.drlx");
+        assertThat(snapshot.version()).isEqualTo(3);
+        assertThat(snapshot.text()).isEqualTo(text);
+        assertThat(snapshot.tokens()).isNotEmpty();
+        assertThat(snapshot.tokens().get(snapshot.tokens().size() - 1).getType()).isEqualTo(Token.EOF);
+        assertThat(snapshot.parseTree()).isInstanceOf(DrlxParser.DrlxStartContext.class);
+        assertThat(snapshot.syntaxErrors()).isEmpty();
+    }
+
+    @Test
+    void collectsSyntaxErrors() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /
+                """;
+
+        DocumentSnapshot snapshot = parser.parse("file:///broken.drlx", 1, text);
+
+        assertThat(snapshot.hasSyntaxErrors()).isTrue();
+        SyntaxError error = snapshot.syntaxErrors().get(0);
+        assertThat(error.line()).isGreaterThanOrEqualTo(4);
+        assertThat(error.message()).isNotBlank();
+    }
+
+    @Test
+    void updateMatchesFullParse() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /as,
+                    do { System.out.println(a); }
+                }
+                """;
+        DocumentSnapshot previous = parser.parse("file:///rules.drlx", 1, text);
+
+        int offset = text.indexOf("/as") + 1;
+        List<TextChange> changes = List.of(
+                new TextChange(offset, offset + 2, "persons[ age > 18 ]"),
+                new TextChange(0, 0, "import org.example.Person;\n"));
+        DocumentSnapshot updated = parser.update(previous, 2, changes);
+
+        String newText = changes.get(1).apply(changes.get(0).apply(text));
+        DocumentSnapshot full = parser.parse("file:///rules.drlx", 2, newText);
+
+        assertThat(updated.version()).isEqualTo(2);
+        assertThat(updated.text()).isEqualTo(newText);
+        assertThat(updated.parseTree().toStringTree(updated.parser()))
+                .isEqualTo(full.parseTree().toStringTree(full.parser()));
+        assertThat(updated.syntaxErrors()).isEmpty();
+    }
+
+    @Test
+    void repeatedEditsMatchFullParse() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /as,
+                    do { System.out.println(a); }
+                }
+
+                rule R2 {
+                    var p : /persons,
+                    do { System.out.println(p); }
+                }
+
+                rule R3 {
+                    var b : /bs,
+                    do { System.out.println(b); }
+                }
+                """;
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 1, text);
+        // Alternating between rules, each version updated from the previous one
+        String[] after = {"println(p);", "println(a);", "println(b);", "println(p);", "println(a);"};
+        for (int i = 0; i < after.length; i++) {
+            int offset = text.indexOf(after[i]) + after[i].length();
+            TextChange change = new TextChange(offset, offset, " f" + i + "();");
+            text = change.apply(text);
+            snapshot = parser.update(snapshot, i + 2, List.of(change));
+            DocumentSnapshot full = parser.parse("file:///rules.drlx", i + 2, text);
+
+            assertThat(snapshot.parseTree().toStringTree(snapshot.parser()))
+                    .isEqualTo(full.parseTree().toStringTree(full.parser()));
+            List<DrlxParser.RuleDeclarationContext> rules = snapshot.summary().rules();
+            List<DrlxParser.RuleDeclarationContext> expected = full.summary().rules();
+            assertThat(rules).hasSameSizeAs(expected);
+            for (int r = 0; r < rules.size(); r++) {
+                assertSameToken(rules.get(r).getStart(), expected.get(r).getStart());
+                assertSameToken(rules.get(r).getStop(), expected.get(r).getStop());
+                assertThat(snapshot.summary().enclosingRule(expected.get(r).getStop().getTokenIndex()))
+                        .isSameAs(rules.get(r));
+            }
+        }
+    }
+
+    @Test
+    void updateKeepsErrorsOfEditedRule() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons,
+                    do { System.out.println(p); }
+                }
+
+                rule R2 {
+                    var b : /bs,
+                    do { System.out.println(b); }
+                }
+                """;
+        DocumentSnapshot previous = parser.parse("file:///rules.drlx", 1, text);
+
+        int offset = text.indexOf("println(p);") + "println(p);".length();
+        TextChange change = new TextChange(offset, offset, " p.");
+        DocumentSnapshot updated = parser.update(previous, 2, List.of(change));
+        DocumentSnapshot full = parser.parse("file:///rules.drlx", 2, change.apply(text));
+
+        assertThat(updated.hasSyntaxErrors()).isEqualTo(full.hasSyntaxErrors());
+        assertThat(updated.parseTree().toStringTree(updated.parser()))
+                .isEqualTo(full.parseTree().toStringTree(full.parser()));
+    }
+
+    @Test
+    void updateOutsideRulesParsesWholeDocument() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /as,
+                    do { System.out.println(a); }
+                }
+                """;
+        DocumentSnapshot previous = parser.parse("file:///rules.drlx", 1, text);
+
+        TextChange change = new TextChange("unit ".length(), "unit MyUnit".length(), "OtherUnit");
+        DocumentSnapshot updated = parser.update(previous, 2, List.of(change));
+        DocumentSnapshot full = parser.parse("file:///rules.drlx", 2, change.apply(text));
+
+        assertThat(updated.parseTree().toStringTree(updated.parser()))
+                .isEqualTo(full.parseTree().toStringTree(full.parser()));
+        assertThat(updated.summary().headerFingerprint()).isNotEqualTo(previous.summary().headerFingerprint());
+    }
+
+    @Test
+    void twoStageCountsSllAndFallbacks() {
+        String valid = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /as,
+                    do { System.out.println(a); }
+                }
+                """;
+        String broken = """
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /
+                """;
+        DrlxDocumentParser twoStage = new DrlxDocumentParser(ParseStrategy.TWO_STAGE);
+
+        twoStage.parse("file:///valid.drlx", 1, valid);
+        DocumentSnapshot snapshot = twoStage.parse("file:///broken.drlx", 1, broken);
+
+        assertThat(twoStage.statistics("file:///valid.drlx").sllParses()).isEqualTo(1);
+        assertThat(twoStage.statistics("file:///valid.drlx").llFallbacks()).isZero();
+        assertThat(twoStage.statistics("file:///broken.drlx").sllParses()).isZero();
+        assertThat(twoStage.statistics("file:///broken.drlx").llFallbacks()).isEqualTo(1);
+
+        // The fallback reports the same errors and tree as a plain LL parse
+        DrlxDocumentParser ll = new DrlxDocumentParser(ParseStrategy.LL);
+        DocumentSnapshot expected = ll.parse("file:///broken.drlx", 1, broken);
+        assertThat(snapshot.syntaxErrors()).isEqualTo(expected.syntaxErrors());
+        assertThat(snapshot.parseTree().toStringTree(snapshot.parser()))
+                .isEqualTo(expected.parseTree().toStringTree(expected.parser()));
+        assertThat(ll.statistics("file:///broken.drlx").llParses()).isEqualTo(1);
+    }
+
+    private static void assertSameToken(Token actual, Token expected) {
+        assertThat(actual.getType()).isEqualTo(expected.getType());
+        assertThat(actual.getStartIndex()).isEqualTo(expected.getStartIndex());
+        assertThat(actual.getStopIndex()).isEqualTo(expected.getStopIndex());
+        assertThat(actual.getLine()).isEqualTo(expected.getLine());
+    }
+}
@@ -0,0 +1,92 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionIndexTest {
+
+    private final DrlxDocumentParser parser = new DrlxDocumentParser();
+
+    @Test
+    void offsetsAndPositions() {
+        PositionIndex index = PositionIndex.of("ab\ncd\r\nef", List.of());
+
+        assertThat(index.lineCount()).isEqualTo(3);
+        assertThat(index.offsetAt(new Position(0, 1))).isEqualTo(1);
+        assertThat(index.offsetAt(new Position(1, 0))).isEqualTo(3);
+        assertThat(index.offsetAt(new Position(2, 2))).isEqualTo(9);
+        // Past the line end: clamped before the line terminator
+        assertThat(index.offsetAt(new Position(0, 10))).isEqualTo(2);
+        assertThat(index.offsetAt(new Position(1, 10))).isEqualTo(5);
+        // Past the document end
+        assertThat(index.offsetAt(new Position(7, 0))).isEqualTo(9);
+
+        assertThat(index.positionAt(0)).isEqualTo(new Position(0, 0));
+        assertThat(index.positionAt(3)).isEqualTo(new Position(1, 0));
+        assertThat(index.positionAt(8)).isEqualTo(new Position(2, 1));
+        assertThat(index.positionAt(100)).isEqualTo(new Position(2, 2));
+    }
+
+    @Test
+    void charactersAreUtf16CodeUnits() {
+        // U+1F600 is a surrogate pair: two UTF-16 code units
+        String text = """
+                rule R1 {
+                    var s = "😀";
+                    do { s.
+                """;
+        DocumentSnapshot snapshot = parser.parse("file:///utf16.drlx", 1, text);
+        PositionIndex index = snapshot.positions();
+
+        int offset = text.indexOf("\";") + 1;
+        assertThat(index.positionAt(offset)).isEqualTo(new Position(1, 16));
+        assertThat(index.offsetAt(new Position(1, 16))).isEqualTo(offset);
+
+        Token semi = snapshot.tokens().get(index.tokenIndexAt(offset));
+        assertThat(semi.getText()).isEqualTo(";");
+        assertThat(index.range(semi)).isEqualTo(new Range(new Position(1, 16), new Position(1, 17)));
+    }
+
+    @Test
+    void caretTokenIndexMatchesLinearScan() {
+        String text = """
+                import org.drools.drlx.domain.Person;
+
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons[ age > 18 ],
+                    do { System.out.println(p.name); }
+                }
+                """;
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 1, text);
+        PositionIndex index = snapshot.positions();
+
+        String[] lines = text.split("\n", -1);
+        for (int line = 0; line < lines.length; line++) {
+            for (int col = 0; col <= lines[line].length(); col++) {
+                assertThat(index.caretTokenIndex(new Position(line, col)))
+                        .as("caret at %d:%d", line, col)
+                        .isEqualTo(linearScan(snapshot.tokens(), line + 1, col));
+            }
+        }
+        assertThat(index.caretTokenIndex(null)).isZero();
+    }
+
+    private static int linearScan(List<Token> tokens, int row, int col) {
+        int tokenIndex = 0;
+        for (Token token : tokens) {
+            if (token.getLine() > row || (token.getLine() == row && token.getCharPositionInLine() >= col)) {
+                break;
+            }
+            tokenIndex++;
+        }
+        return tokenIndex;
+    }
+}
@@ -0,0 +1,54 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecognizersTest {
+
+    @Test
+    void pooledLexerLexesEachInputFromScratch() {
+        DrlxDocumentParser parser = new DrlxDocumentParser();
+
+        List<Token> first = parser.lex(Rope.of("unit MyUnit;"));
+        List<Token> second = parser.lex(Rope.of("rule R1 {\n}"));
+
+        assertThat(first.get(2).getText()).isEqualTo("MyUnit");
+        assertThat(second.get(2).getText()).isEqualTo("R1");
+        assertThat(second.get(2).getLine()).isEqualTo(1);
+        assertThat(second.get(second.size() - 1).getLine()).isEqualTo(2);
+        // Tokens of the earlier input keep their own text
+        assertThat(first.get(0).getText()).isEqualTo("unit");
+    }
+
+    @Test
+    void noConsoleErrorListener() {
+        DrlxLexer lexer = Recognizers.lexer(Rope.of("unit #").charStream());
+        DrlxParser parser = Recognizers.parser(new CommonTokenStream(new ListTokenSource(List.of())));
+
+        assertThat(lexer.getErrorListeners()).isEmpty();
+        assertThat(parser.getErrorListeners()).isEmpty();
+    }
+
+    @Test
+    void pooledParserIsReset() {
+        DrlxDocumentParser parser = new DrlxDocumentParser();
+
+        CompletionWindow broken = CompletionWindow.parse(parser, Rope.of("unit MyUnit;\nrule R1 { var p : /persons[ ,"),
+                new Position(1, 20));
+        assertThat(broken.parser().getNumberOfSyntaxErrors()).isPositive();
+
+        CompletionWindow clean = CompletionWindow.parse(parser, Rope.of("unit MyUnit;\nrule R2 {\n}\n"),
+                new Position(1, 5));
+        assertThat(clean.parser().getNumberOfSyntaxErrors()).isZero();
+        assertThat(clean.parseTree().getText()).contains("ruleR2{}");
+    }
+}
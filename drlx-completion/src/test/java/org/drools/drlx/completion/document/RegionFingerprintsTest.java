@@ -0,0 +1,93 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegionFingerprintsTest {
+
+    private static final String TEXT = """
+            import org.example.Person;
+            unit MyUnit;
+
+            rule R1 {
+                var a : /as,
+                do { System.out.println(a); }
+            }
+
+            rule R2 {
+                var p : /persons,
+                do { System.out.println(p); }
+            }
+            """;
+
+    private final DrlxDocumentParser parser = new DrlxDocumentParser();
+
+    private static long rule(DocumentSnapshot snapshot, int index) {
+        DocumentSummary summary = snapshot.summary();
+        return RegionFingerprints.rule(summary, snapshot.tokenStream(), summary.rules().get(index));
+    }
+
+    @Test
+    void editChangesOnlyItsRule() {
+        DocumentSnapshot previous = parser.parse("file:///rules.drlx", 1, TEXT);
+        int offset = TEXT.indexOf("println(p);") + "println(p);".length();
+        DocumentSnapshot updated = parser.update(previous, 2, List.of(new TextChange(offset, offset, " int x = 1;")));
+
+        assertThat(rule(updated, 0)).isEqualTo(rule(previous, 0));
+        assertThat(rule(updated, 1)).isNotEqualTo(rule(previous, 1));
+        assertThat(updated.summary().headerFingerprint()).isEqualTo(previous.summary().headerFingerprint());
+    }
+
+    @Test
+    void shiftedRuleKeepsItsFingerprint() {
+        DocumentSnapshot previous = parser.parse("file:///rules.drlx", 1, TEXT);
+        DocumentSnapshot shifted = parser.parse("file:///rules.drlx", 2, TEXT.replace("unit MyUnit;", "unit MyUnit;\n\n"));
+
+        assertThat(rule(shifted, 0)).isEqualTo(rule(previous, 0));
+        assertThat(rule(shifted, 1)).isEqualTo(rule(previous, 1));
+    }
+
+    @Test
+    void windowMatchesDocument() {
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 1, TEXT);
+        // In the constraint of R1
+        CompletionWindow window = CompletionWindow.parse(parser, snapshot, new Position(4, 14));
+        DocumentSummary summary = window.summary();
+        RuleDeclarationContext rule = summary.enclosingRule(window.caretTokenIndex());
+
+        assertThat(RegionFingerprints.rule(summary, window.parser().getTokenStream(), rule)).isEqualTo(rule(snapshot, 0));
+        assertThat(summary.headerFingerprint()).isEqualTo(snapshot.summary().headerFingerprint());
+    }
+
+    @Test
+    void compactTokensHashLikeTokenObjects() {
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 1, TEXT);
+        CommonTokenStream tokens = new CommonTokenStream(new ListTokenSource(parser.lex(snapshot.content())));
+        tokens.fill();
+
+        assertThat(snapshot.tokenStream()).isInstanceOf(CompactTokenStream.class);
+        for (int i = 0; i < snapshot.summary().rules().size(); i++) {
+            RuleDeclarationContext rule = snapshot.summary().rules().get(i);
+            assertThat(RegionFingerprints.rule(snapshot.summary(), tokens, rule)).isEqualTo(rule(snapshot, i));
+        }
+    }
+
+    @Test
+    void headerCoversImportsAndUnit() {
+        long header = parser.parse(null, 0, TEXT).summary().headerFingerprint();
+
+        assertThat(parser.parse(null, 0, TEXT.replace("unit MyUnit;", "unit OtherUnit;")).summary().headerFingerprint())
+                .isNotEqualTo(header);
+        assertThat(parser.parse(null, 0, "import java.util.List;\n" + TEXT).summary().headerFingerprint())
+                .isNotEqualTo(header);
+        assertThat(parser.parse(null, 0, TEXT.replace("rule R1", "rule Other")).summary().headerFingerprint())
+                .isEqualTo(header);
+    }
+}
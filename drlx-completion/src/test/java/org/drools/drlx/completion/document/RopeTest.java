@@ -0,0 +1,123 @@
+package org.drools.drlx.completion.document;
+
+import java.util.Random;
+
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RopeTest {
+
+    @Test
+    void randomEditsMatchString() {
+        Random random = new Random(42);
+        String text = randomText(random, 5_000);
+        Rope rope = Rope.of(text);
+
+        for (int i = 0; i < 20_000; i++) {
+            int start = random.nextInt(text.length() + 1);
+            int end = Math.min(text.length(), start + random.nextInt(5));
+            String inserted = switch (random.nextInt(3)) {
+                case 0 -> "";
+                case 1 -> "x\ny";
+                default -> "abcd";
+            };
+            text = text.substring(0, start) + inserted + text.substring(end);
+            rope = rope.replace(start, end, inserted);
+        }
+
+        assertThat(rope.toString()).isEqualTo(text);
+        assertThat(rope.length()).isEqualTo(text.length());
+        assertThat(rope.substring(100, 3_000)).isEqualTo(text.substring(100, 3_000));
+        assertThat(rope.subSequence(7, 2_000).toString()).isEqualTo(text.substring(7, 2_000));
+        // Height-balanced: logarithmic in the number of chunks
+        assertThat(rope.height()).isLessThan(2 * (32 - Integer.numberOfLeadingZeros(text.length() / 64 + 1)) + 2);
+    }
+
+    @Test
+    void previousVersionIsUnchanged() {
+        Rope v1 = Rope.of("rule R1 {\n}\n");
+        Rope v2 = v1.replace(5, 7, "Renamed");
+
+        assertThat(v1.toString()).isEqualTo("rule R1 {\n}\n");
+        assertThat(v2.toString()).isEqualTo("rule Renamed {\n}\n");
+    }
+
+    @Test
+    void lines() {
+        Rope rope = Rope.of("ab\ncd\r\nef");
+
+        assertThat(rope.lineCount()).isEqualTo(3);
+        assertThat(rope.lineStarts()).containsExactly(0, 3, 7);
+        assertThat(rope.lineStart(1)).isEqualTo(3);
+        assertThat(rope.lineStart(2)).isEqualTo(7);
+        assertThat(rope.offsetAt(1, 1)).isEqualTo(4);
+        assertThat(rope.offsetAt(1, 10)).isEqualTo(5);
+        assertThat(rope.offsetAt(2, 10)).isEqualTo(9);
+        assertThat(rope.offsetAt(5, 0)).isEqualTo(9);
+    }
+
+    @Test
+    void linesAcrossChunks() {
+        String text = randomText(new Random(7), 10_000);
+        Rope rope = Rope.of(text);
+
+        int line = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+                assertThat(rope.lineStart(line)).isEqualTo(i + 1);
+            }
+        }
+        assertThat(rope.lineCount()).isEqualTo(line + 1);
+        assertThat(rope.lineStarts()).hasSize(line + 1);
+    }
+
+    @Test
+    void charStreamReadsWithoutCopying() {
+        String text = randomText(new Random(3), 4_000);
+        RopeCharStream stream = Rope.of(text).charStream();
+
+        assertThat(stream.size()).isEqualTo(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            assertThat(stream.LA(1)).isEqualTo(text.charAt(i));
+            stream.consume();
+        }
+        assertThat(stream.LA(1)).isEqualTo(IntStream.EOF);
+        assertThat(stream.LA(-1)).isEqualTo(text.charAt(text.length() - 1));
+
+        stream.seek(10);
+        assertThat(stream.index()).isEqualTo(10);
+        assertThat(stream.LA(1)).isEqualTo(text.charAt(10));
+        assertThat(stream.getText(Interval.of(1_000, 1_999))).isEqualTo(text.substring(1_000, 2_000));
+    }
+
+    @Test
+    void lexesLikeStringInput() {
+        String text = """
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons[ age > 18 ],
+                    do { System.out.println(p); }
+                }
+                """;
+        DrlxDocumentParser parser = new DrlxDocumentParser();
+
+        DocumentSnapshot snapshot = parser.parse("file:///rules.drlx", 1, Rope.of(text));
+
+        assertThat(snapshot.text()).isEqualTo(text);
+        assertThat(snapshot.syntaxErrors()).isEmpty();
+        assertThat(snapshot.tokens().get(2).getText()).isEqualTo("MyUnit");
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(random.nextInt(10) == 0 ? '\n' : (char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package org.drools.drlx.completion.document;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.drools.drlx.parser.DrlxLexer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenSplicerTest {
+
+    private static final String DRLX = """
+            unit MyUnit;
+
+            rule R1 {
+                var p : /persons[ age > 18 ],
+                do { System.out.println(p); }
+            }
+
+            rule R2 {
+                var a : /addresses,
+                do { System.out.println(a); }
+            }
+            """;
+
+    @Test
+    void insertInsideIdentifier() {
+        int offset = DRLX.indexOf("persons") + 3;
+        assertSameAsFullLex(DRLX, new TextChange(offset, offset, "xx"));
+    }
+
+    @Test
+    void appendToIdentifier() {
+        int offset = DRLX.indexOf("persons") + "persons".length();
+        assertSameAsFullLex(DRLX, new TextChange(offset, offset, "s"));
+    }
+
+    @Test
+    void insertNewLines() {
+        int offset = DRLX.indexOf("do {");
+        assertSameAsFullLex(DRLX, new TextChange(offset, offset, "\n\n    var q : /persons,\n    "));
+    }
+
+    @Test
+    void deleteAcrossRules() {
+        int start = DRLX.indexOf("do { System");
+        int end = DRLX.indexOf("var a");
+        assertSameAsFullLex(DRLX, new TextChange(start, end, ""));
+    }
+
+    @Test
+    void openBlockComment() {
+        // Damage that runs to the end of the document: nothing after the edit can be reused
+        int offset = DRLX.indexOf("rule R2");
+        assertSameAsFullLex(DRLX, new TextChange(offset, offset, "/* "));
+    }
+
+    @Test
+    void editAtDocumentStartAndEnd() {
+        assertSameAsFullLex(DRLX, new TextChange(0, 0, "package org.example;\n"));
+        assertSameAsFullLex(DRLX, new TextChange(DRLX.length(), DRLX.length(), "rule R3 {"));
+    }
+
+    @Test
+    void reusesTokensOutsideWindow() {
+        List<Token> oldTokens = lex(DRLX);
+        int offset = DRLX.indexOf("persons") + 3;
+        TextChange change = new TextChange(offset, offset, "x");
+
+        TokenSplicer.Splice splice = TokenSplicer.splice(oldTokens, new ANTLRInputStream(change.apply(DRLX)),
+                change, new SyntaxErrorCollector());
+
+        assertThat(splice.tokens().get(0)).isSameAs(oldTokens.get(0));
+        assertThat(splice.windowStart()).isLessThanOrEqualTo(offset);
+        assertThat(splice.oldWindowEnd()).isLessThan(DRLX.indexOf("rule R2"));
+    }
+
+    private static void assertSameAsFullLex(String text, TextChange change) {
+        String newText = change.apply(text);
+        TokenSplicer.Splice splice = TokenSplicer.splice(lex(text), new ANTLRInputStream(newText),
+                change, new SyntaxErrorCollector());
+
+        List<Token> expected = lex(newText);
+        assertThat(describe(splice.tokens())).containsExactlyElementsOf(describe(expected));
+
+        CompactTokenBuffer compact = CompactTokenBuffer.of(lex(text), Rope.of(text));
+        TokenSplicer.Splice compactSplice = TokenSplicer.splice(compact, change.apply(Rope.of(text)),
+                change, new SyntaxErrorCollector());
+        assertThat(describe(compactSplice.buffer().asList())).containsExactlyElementsOf(describe(expected));
+    }
+
+    private static List<Token> lex(String text) {
+        CommonTokenStream tokens = new CommonTokenStream(new DrlxLexer(new ANTLRInputStream(text)));
+        tokens.fill();
+        return tokens.getTokens();
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        return tokens.stream()
+                .map(t -> t.getType() + ":" + t.getChannel() + ":" + t.getStartIndex() + "-" + t.getStopIndex()
+                        + "@" + t.getLine() + ":" + t.getCharPositionInLine() + ":" + t.getText())
+                .toList();
+    }
+}
@@ -0,0 +1,80 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.List;
+
+import com.github.javaparser.resolution.types.ResolvedPrimitiveType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.drlx.completion.semantic.TestTypes.referenceType;
+import static org.drools.drlx.completion.semantic.TestTypes.value;
+
+class BeanModelTest {
+
+    private final WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+
+    @Test
+    void propertiesFromGettersAndFields() {
+        BeanModel person = model.beanModel(value(model, "org.drools.drlx.domain.Person"));
+
+        assertThat(person.names()).containsExactlyInAnyOrder("name", "age", "address", "previousAddresses");
+        assertThat(person.property("age").type().category()).isEqualTo(SemanticType.Category.PRIMITIVE);
+        assertThat(person.property("name").type().resolvedType().describe()).isEqualTo("java.lang.String");
+    }
+
+    @Test
+    void navigability() {
+        BeanModel person = model.beanModel(value(model, "org.drools.drlx.domain.Person"));
+
+        assertThat(person.navigableNames()).containsExactlyInAnyOrder("address", "previousAddresses");
+        assertThat(person.property("name").navigable()).isFalse();
+    }
+
+    @Test
+    void collectionElementType() {
+        BeanModel person = model.beanModel(value(model, "org.drools.drlx.domain.Person"));
+
+        BeanModel.Property previous = person.property("previousAddresses");
+        assertThat(previous.elementType().resolvedType().describe()).isEqualTo("org.drools.drlx.domain.Address");
+        assertThat(previous.chunkType()).isSameAs(previous.elementType());
+        BeanModel.Property address = person.property("address");
+        assertThat(address.elementType()).isNull();
+        assertThat(address.chunkType()).isSameAs(address.type());
+    }
+
+    @Test
+    void reflectionMatchesJavaParser() throws Exception {
+        for (String fqcn : List.of("org.drools.drlx.domain.Person", "org.drools.drlx.domain.Address")) {
+            var refType = referenceType(model, fqcn);
+            BeanModel javaParser = BeanModel.of(refType, refType.getTypeDeclaration().orElseThrow());
+            BeanModel reflection = BeanModel.of(Class.forName(fqcn), model.typeSolver());
+
+            assertThat(reflection.names()).containsExactlyInAnyOrderElementsOf(javaParser.names());
+            for (BeanModel.Property expected : javaParser.properties()) {
+                BeanModel.Property actual = reflection.property(expected.name());
+                assertThat(actual.navigable()).as(expected.name()).isEqualTo(expected.navigable());
+                assertThat(actual.type().resolvedType().describe()).as(expected.name())
+                        .isEqualTo(expected.type().resolvedType().describe());
+                assertThat(actual.chunkType().resolvedType().describe()).as(expected.name())
+                        .isEqualTo(expected.chunkType().resolvedType().describe());
+            }
+        }
+    }
+
+    @Test
+    void genericTypeKeepsItsTypeArguments() {
+        var list = referenceType(model, "java.util.ArrayList", referenceType(model, "org.drools.drlx.domain.Address"));
+
+        BeanModel.Property empty = model.beanModel(SemanticType.value(list)).property("empty");
+
+        assertThat(empty.type().resolvedType().describe()).isEqualTo("boolean");
+    }
+
+    @Test
+    void emptyForPrimitives() {
+        BeanModel primitive = model.beanModel(SemanticType.value(ResolvedPrimitiveType.INT));
+
+        assertThat(primitive.properties()).isEmpty();
+        assertThat(primitive.property("value")).isNull();
+    }
+}
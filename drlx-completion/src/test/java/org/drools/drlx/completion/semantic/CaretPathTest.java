@@ -0,0 +1,122 @@
+package org.drools.drlx.completion.semantic;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.drools.drlx.parser.DrlxParser.BlockContext;
+import org.drools.drlx.parser.DrlxParser.BoundOopathContext;
+import org.drools.drlx.parser.DrlxParser.OopathExpressionContext;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaretPathTest {
+
+    private static final String TEXT = """
+            unit MyUnit;
+            rule R1 {
+                var p : /persons[ age > 18 ],
+                do { System.out.println(p); }
+            }
+            rule R2 {
+                var a : /addresses[ city == "Tokyo" ],
+                do { System.out.println(a); }
+            }
+            """;
+
+    private DrlxParser parser;
+    private ParseTree tree;
+
+    private void parse(String text) {
+        ANTLRInputStream input = new ANTLRInputStream(text);
+        DrlxLexer lexer = new DrlxLexer(input);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        parser = new DrlxParser(tokens);
+        tree = parser.drlxStart();
+    }
+
+    /**
+     * The path for a caret right after the {@code occurrence}-th token with {@code text}.
+     */
+    private CaretPath pathAfter(String text, int occurrence) {
+        CommonTokenStream tokens = (CommonTokenStream) parser.getTokenStream();
+        int seen = 0;
+        for (Token token : tokens.getTokens()) {
+            if (token.getText().equals(text) && seen++ == occurrence) {
+                return CaretPath.of(tree, tokens, token.getTokenIndex() + 1);
+            }
+        }
+        throw new AssertionError("No token " + text);
+    }
+
+    @Test
+    void insideConstraint() {
+        parse(TEXT);
+
+        CaretPath path = pathAfter("city", 0);
+
+        assertThat(path.nearest(OopathExpressionContext.class).getText()).contains("addresses");
+        assertThat(path.nearest(BoundOopathContext.class)).isNotNull();
+        assertThat(path.nearest(RuleDeclarationContext.class).identifier().getText()).isEqualTo("R2");
+        assertThat(path.nearest(BlockContext.class)).isNull();
+    }
+
+    @Test
+    void insideConsequence() {
+        parse(TEXT);
+
+        CaretPath path = pathAfter("println", 0);
+
+        assertThat(path.nearest(BlockContext.class)).isNotNull();
+        assertThat(path.nearest(OopathExpressionContext.class)).isNull();
+        assertThat(path.nearest(RuleDeclarationContext.class).identifier().getText()).isEqualTo("R1");
+    }
+
+    @Test
+    void ancestorsEndAtRoot() {
+        parse(TEXT);
+
+        CaretPath path = pathAfter("age", 0);
+
+        assertThat(path.ancestors()).isNotEmpty();
+        assertThat(path.ancestors().get(path.ancestors().size() - 1)).isSameAs(tree);
+        assertThat(parser.getTokenStream().get(path.anchorTokenIndex()).getText()).isEqualTo("age");
+    }
+
+    @Test
+    void skipsHiddenTokensBeforeCaret() {
+        parse(TEXT);
+        CommonTokenStream tokens = (CommonTokenStream) parser.getTokenStream();
+        int r2 = pathAfter("R2", 0).anchorTokenIndex();
+
+        // Caret on 'R2', after the whitespace following 'rule'
+        CaretPath path = CaretPath.of(tree, tokens, r2);
+
+        assertThat(tokens.get(path.anchorTokenIndex()).getText()).isEqualTo("rule");
+    }
+
+    @Test
+    void documentStart() {
+        parse(TEXT);
+
+        CaretPath path = CaretPath.of(tree, parser.getTokenStream(), 0);
+
+        assertThat(path.isEmpty()).isTrue();
+        assertThat(path.nearest(RuleDeclarationContext.class)).isNull();
+    }
+
+    @Test
+    void incompleteConstraint() {
+        parse("""
+                unit MyUnit;
+                rule R1 {
+                    var p : /persons[ age >
+                """);
+
+        assertThat(pathAfter(">", 0).nearest(RuleDeclarationContext.class)).isNotNull();
+    }
+}
@@ -93,6 +93,38 @@ class CompletionContextTest {
         assertThat(ctx.resolveEntryPointNames()).containsExactlyInAnyOrder("persons", "addresses");
     }
 
+    @Test
+    void constraintCompletionsIgnoreAnEarlierPattern() {
+        String text = """
+                import org.drools.drlx.domain.MyUnit;
+                unit MyUnit;
+
+                rule R1 {
+                    var a : /addresses[city == "Paris"],
+                    var p : /persons[
+                }
+                """;
+        parse(text);
+        WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+        CompletionContext ctx = model.createContext(parser, tree, tokenIndexAt(text.indexOf("/persons[") + 9));
+
+        // Person properties or nothing, never those of the Address pattern before it
+        assertThat(ctx.resolveConstraintCompletions()).doesNotContain("city", "country");
+    }
+
+    /**
+     * The index of the first token starting at or after {@code offset}.
+     */
+    private int tokenIndexAt(int offset) {
+        var tokens = parser.getTokenStream();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i).getStartIndex() >= offset) {
+                return i;
+            }
+        }
+        return tokens.size();
+    }
+
     @Test
     void typeSolverDelegatesToModel() {
         parse(DRLX_TEXT);
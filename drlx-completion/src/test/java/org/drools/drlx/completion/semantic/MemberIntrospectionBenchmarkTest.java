@@ -0,0 +1,85 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.javaparser.resolution.model.typesystem.ReferenceTypeImpl;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import org.drools.drlx.completion.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Building member tables and bean models with JavaParser's reflection model and with
+ * {@code java.lang.reflect}, uncached, over a domain model of wide JDK classes.
+ */
+@Tag("benchmark")
+class MemberIntrospectionBenchmarkTest {
+
+    private static final List<String> DOMAIN = List.of(
+            "org.drools.drlx.domain.Person",
+            "org.drools.drlx.domain.Address",
+            "org.drools.drlx.domain.Country",
+            "java.lang.String",
+            "java.lang.StringBuilder",
+            "java.lang.Thread",
+            "java.lang.Character",
+            "java.math.BigDecimal",
+            "java.io.File",
+            "java.net.URI",
+            "java.time.LocalDateTime",
+            "java.time.ZonedDateTime",
+            "java.util.Calendar",
+            "java.util.GregorianCalendar",
+            "java.util.Locale",
+            "java.util.Scanner");
+
+    private final WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+
+    private List<ResolvedReferenceType> types() {
+        return DOMAIN.stream().<ResolvedReferenceType>map(fqcn -> new ReferenceTypeImpl(model.typeSolver().solveType(fqcn))).toList();
+    }
+
+    private List<Class<?>> classes() throws ClassNotFoundException {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String fqcn : DOMAIN) {
+            classes.add(Class.forName(fqcn));
+        }
+        return classes;
+    }
+
+    @Test
+    void memberTables() throws Exception {
+        List<ResolvedReferenceType> types = types();
+        List<Class<?>> classes = classes();
+
+        Benchmarks.Result javaParser = Benchmarks.measure("member tables (JavaParser)", 20, 200,
+                () -> types.forEach(MemberTable::of));
+        Benchmarks.Result reflection = Benchmarks.measure("member tables (reflection)", 20, 200,
+                () -> classes.forEach(MemberTable::of));
+
+        assertThat(javaParser.microsPerOp()).isPositive();
+        assertThat(reflection.microsPerOp()).isPositive();
+    }
+
+    @Test
+    void beanModels() throws Exception {
+        List<ResolvedReferenceType> types = types();
+        List<Class<?>> classes = classes();
+
+        Benchmarks.Result javaParser = Benchmarks.measure("bean models (JavaParser)", 20, 200,
+                () -> types.forEach(type -> BeanModel.of(type, type.getTypeDeclaration().orElseThrow())));
+        // Names and navigability only, as chunk completions use them: no type is materialized
+        Benchmarks.Result reflection = Benchmarks.measure("bean models (reflection)", 20, 200,
+                () -> classes.forEach(clazz -> BeanModel.of(clazz, model.typeSolver()).navigableNames()));
+        Benchmarks.Result materialized = Benchmarks.measure("bean models (reflection, all types)", 20, 200,
+                () -> classes.forEach(clazz -> BeanModel.of(clazz, model.typeSolver()).properties()
+                        .forEach(BeanModel.Property::chunkType)));
+
+        assertThat(javaParser.microsPerOp()).isPositive();
+        assertThat(reflection.microsPerOp()).isPositive();
+        assertThat(materialized.microsPerOp()).isPositive();
+    }
+}
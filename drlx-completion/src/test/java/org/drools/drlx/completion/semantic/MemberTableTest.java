@@ -0,0 +1,72 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.CompletionItem;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.drools.drlx.completion.semantic.TestTypes.referenceType;
+
+class MemberTableTest {
+
+    private final WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+    private final MemberCompletionProvider provider = new MemberCompletionProvider(model);
+
+    private static List<String> labels(List<CompletionItem> items) {
+        return items.stream().map(CompletionItem::getInsertText).toList();
+    }
+
+    @Test
+    void typeShowsOnlyStaticMembers() {
+        List<String> labels = labels(provider.completions(SemanticType.typeRef(referenceType(model, "java.lang.String"))));
+
+        assertThat(labels).contains("valueOf", "join", "CASE_INSENSITIVE_ORDER");
+        assertThat(labels).doesNotContain("length", "bytes", "empty");
+    }
+
+    @Test
+    void valueShowsInstanceMembersAndProperties() {
+        List<String> labels = labels(provider.completions(SemanticType.value(referenceType(model, "java.lang.String"))));
+
+        assertThat(labels).contains("length", "valueOf", "bytes", "empty");
+    }
+
+    @Test
+    void propertiesAreListedOnce() {
+        List<String> labels = labels(provider.completions(SemanticType.value(referenceType(model, "org.drools.drlx.domain.Person"))));
+
+        assertThat(labels).containsOnlyOnce("name", "age", "address");
+    }
+
+    @Test
+    void methodNamedGetIsNotAProperty() {
+        List<String> labels = labels(provider.completions(SemanticType.value(referenceType(model, "java.util.List"))));
+
+        assertThat(labels).contains("get", "size", "empty");
+        assertThat(labels).doesNotContain("");
+    }
+
+    @Test
+    void itemsAreSharedAndUnmodifiable() {
+        List<CompletionItem> items = provider.completions(SemanticType.value(referenceType(model, "java.lang.String")));
+
+        assertThat(provider.completions(SemanticType.value(referenceType(model, "java.lang.String")))).isSameAs(items);
+        assertThatThrownBy(items::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void reflectionMatchesJavaParser() throws Exception {
+        for (String fqcn : List.of("org.drools.drlx.domain.Person", "java.lang.System")) {
+            MemberTable javaParser = MemberTable.of(referenceType(fqcn));
+            MemberTable reflection = MemberTable.of(Class.forName(fqcn));
+
+            assertThat(labels(reflection.instanceItems())).containsExactlyInAnyOrderElementsOf(labels(javaParser.instanceItems()));
+            assertThat(labels(reflection.staticItems())).containsExactlyInAnyOrderElementsOf(labels(javaParser.staticItems()));
+        }
+        CompletionItem out = MemberTable.of(System.class).staticItems().stream()
+                .filter(item -> item.getInsertText().equals("out")).findFirst().orElseThrow();
+        assertThat(out.getDetail()).isEqualTo("java.io.PrintStream");
+    }
+}
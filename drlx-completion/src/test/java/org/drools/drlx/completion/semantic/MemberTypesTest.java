@@ -0,0 +1,88 @@
+package org.drools.drlx.completion.semantic;
+
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.drools.drlx.parser.DrlxLexer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.drlx.completion.semantic.TestTypes.referenceType;
+
+class MemberTypesTest {
+
+    private final WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+
+    private ResolvedReferenceType addresses() {
+        return referenceType(model, "java.util.List", referenceType(model, "org.drools.drlx.domain.Address"));
+    }
+
+    private SemanticType chain(String expression, VisibleSymbols symbols) {
+        CommonTokenStream tokens = new CommonTokenStream(new DrlxLexer(new ANTLRInputStream(expression)));
+        tokens.fill();
+        // Up to the trailing '.', before EOF
+        int dot = tokens.size() - 2;
+        return MemberChain.resolve(tokens, 0, dot, symbols, model);
+    }
+
+    @Test
+    void substitutesTypeArguments() {
+        MemberTypes list = model.memberTypes(addresses());
+
+        assertThat(list.method("get", 1).describe()).isEqualTo("org.drools.drlx.domain.Address");
+        assertThat(list.method("iterator", 0).describe()).isEqualTo("java.util.Iterator<org.drools.drlx.domain.Address>");
+        assertThat(list.property("empty").describe()).isEqualTo("boolean");
+    }
+
+    @Test
+    void substitutesThroughAncestors() {
+        MemberTypes map = model.memberTypes(referenceType(model, "java.util.Map", referenceType(model, "java.lang.String"), addresses()));
+
+        assertThat(map.method("get", 1).describe()).isEqualTo("java.util.List<org.drools.drlx.domain.Address>");
+        assertThat(map.method("values", 0).describe())
+                .isEqualTo("java.util.Collection<java.util.List<org.drools.drlx.domain.Address>>");
+    }
+
+    @Test
+    void propertiesUseGetters() {
+        MemberTypes person = model.memberTypes(referenceType(model, "org.drools.drlx.domain.Person"));
+
+        assertThat(person.property("address").describe()).isEqualTo("org.drools.drlx.domain.Address");
+        assertThat(person.property("previousAddresses").describe())
+                .isEqualTo("java.util.List<org.drools.drlx.domain.Address>");
+        assertThat(person.property("missing")).isNull();
+    }
+
+    @Test
+    void rawTypeLeavesTypeVariablesOut() {
+        MemberTypes raw = model.memberTypes(referenceType(model, "java.util.List"));
+
+        assertThat(raw.method("get", 1)).isNull();
+        assertThat(raw.method("size", 0).describe()).isEqualTo("int");
+    }
+
+    @Test
+    void chainResolvesEachHop() {
+        VisibleSymbols symbols = new VisibleSymbols.Builder()
+                .add("person", SemanticType.value(referenceType(model, "org.drools.drlx.domain.Person")))
+                .build();
+
+        assertThat(chain("person.previousAddresses.get(0).country.", symbols).resolvedType().describe())
+                .isEqualTo("org.drools.drlx.domain.Country");
+        assertThat(chain("person.previousAddresses[0].city.", symbols).resolvedType().describe())
+                .isEqualTo("java.lang.String");
+        assertThat(chain("person.address.", symbols).resolvedType().describe())
+                .isEqualTo("org.drools.drlx.domain.Address");
+    }
+
+    @Test
+    void chainGivesUpOnOtherExpressions() {
+        VisibleSymbols symbols = new VisibleSymbols.Builder()
+                .add("person", SemanticType.value(referenceType(model, "org.drools.drlx.domain.Person")))
+                .build();
+
+        assertThat(chain("System.out.", symbols)).isNull();
+        assertThat(chain("person.missing.", symbols)).isNull();
+        assertThat(chain("person.name.length().value.", symbols)).isNull();
+    }
+}
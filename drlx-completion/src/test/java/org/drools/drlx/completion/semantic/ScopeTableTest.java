@@ -0,0 +1,194 @@
+package org.drools.drlx.completion.semantic;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.DocumentSummary;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
+import org.drools.drlx.parser.DrlxParser.RuleDeclarationContext;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScopeTableTest {
+
+    private static final String TEXT = """
+            unit MyUnit;
+            rule R1(String name) {
+                var p : /persons[ age > 18 ],
+                do {
+                    String a = name;
+                    {
+                        Integer b = 1;
+                        System.out.println(b);
+                    }
+                    System.out.println(a);
+                }
+            }
+            """;
+
+    private final WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+    private DrlxParser parser;
+    private ParseTree tree;
+
+    private void parse(String text) {
+        ANTLRInputStream input = new ANTLRInputStream(text);
+        DrlxLexer lexer = new DrlxLexer(input);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        parser = new DrlxParser(tokens);
+        tree = parser.drlxStart();
+    }
+
+    private int tokenIndex(String text, int occurrence) {
+        int seen = 0;
+        for (Token token : ((CommonTokenStream) parser.getTokenStream()).getTokens()) {
+            if (token.getText().equals(text) && seen++ == occurrence) {
+                return token.getTokenIndex();
+            }
+        }
+        throw new AssertionError("No token " + text);
+    }
+
+    private VisibleSymbols symbolsAt(int caretTokenIndex) {
+        return model.createContext(parser, tree, caretTokenIndex).buildVisibleSymbols();
+    }
+
+    private RuleDeclarationContext rule() {
+        return DocumentSummary.of(tree).rules().get(0);
+    }
+
+    private ScopeTable table() {
+        return model.scopeTable(DocumentSummary.of(tree), parser.getTokenStream(), rule());
+    }
+
+    private int offset(String text, int occurrence) {
+        return tokenIndex(text, occurrence) - rule().getStart().getTokenIndex();
+    }
+
+    @Test
+    void declarationsInDocumentOrder() {
+        parse(TEXT);
+
+        ScopeTable table = table();
+
+        assertThat(table.declarations()).extracting(ScopeTable.Declaration::name)
+                .containsExactly("name", "p", "a", "b");
+        assertThat(table.declarations().get(1).entryPoint()).isEqualTo("persons");
+        assertThat(table.declarations().get(1).typeName()).isNull();
+    }
+
+    @Test
+    void innerBlockSeesOuterDeclarations() {
+        parse(TEXT);
+
+        // At 'System' in the inner block
+        VisibleSymbols symbols = symbolsAt(tokenIndex("System", 0));
+
+        assertThat(symbols.lookup("name")).isPresent();
+        assertThat(symbols.lookup("a")).isPresent();
+        assertThat(symbols.lookup("b")).isPresent();
+    }
+
+    @Test
+    void innerBlockDeclarationsEndWithIt() {
+        parse(TEXT);
+
+        // At 'System' after the inner block
+        VisibleSymbols symbols = symbolsAt(tokenIndex("System", 1));
+
+        assertThat(symbols.lookup("a")).isPresent();
+        assertThat(symbols.lookup("b")).isEmpty();
+    }
+
+    @Test
+    void laterDeclarationsAreNotVisible() {
+        parse(TEXT);
+
+        // At the 'String' of 'String a'
+        VisibleSymbols symbols = symbolsAt(tokenIndex("String", 1));
+
+        assertThat(symbols.lookup("name")).isPresent();
+        assertThat(symbols.lookup("a")).isEmpty();
+        assertThat(symbols.lookup("b")).isEmpty();
+    }
+
+    @Test
+    void unclosedBlockReachesTheCaret() {
+        parse("""
+                unit MyUnit;
+                rule R1 {
+                    do {
+                        String a = "x";
+                        {
+                            Integer b = 1;
+                            b.""");
+
+        VisibleSymbols symbols = symbolsAt(tokenIndex(".", 0) + 1);
+
+        assertThat(symbols.lookup("a")).isPresent();
+        assertThat(symbols.lookup("b")).isPresent();
+    }
+
+    @Test
+    void tableIsKeptForTheSameRuleTokens() {
+        parse(TEXT);
+        ScopeTable table = table();
+
+        symbolsAt(tokenIndex("System", 0));
+        // Another parse of the same text
+        parse(TEXT);
+
+        assertThat(table()).isSameAs(table);
+        assertThat(table.declarations().get(0).isResolved()).isTrue();
+        assertThat(table.declarations().get(3).isResolved()).isTrue();
+    }
+
+    @Test
+    void tableIsKeptWhenAnotherRuleChanges() {
+        parse(TEXT + "rule R2 { do { int x = 1; } }\n");
+        ScopeTable table = table();
+
+        parse(TEXT + "rule R2 { do { int y = 2; } }\n");
+
+        assertThat(table()).isSameAs(table);
+    }
+
+    @Test
+    void tableIsKeptWhenTheRuleMoves() {
+        parse(TEXT);
+        ScopeTable table = table();
+
+        parse("import java.util.List;\n\n" + TEXT);
+
+        // Same tokens at other indices, under another header
+        assertThat(table()).isNotSameAs(table);
+        parse(TEXT.replace("unit MyUnit;", "unit MyUnit;\n\n\n"));
+        assertThat(table()).isSameAs(table);
+        assertThat(symbolsAt(tokenIndex("System", 1)).lookup("a")).isPresent();
+        assertThat(symbolsAt(tokenIndex("System", 1)).lookup("b")).isEmpty();
+    }
+
+    @Test
+    void consequenceEditReplacesTheTable() {
+        parse(TEXT);
+        ScopeTable table = table();
+
+        parse(TEXT.replace("String a = name;", "String c = name;"));
+
+        assertThat(table()).isNotSameAs(table);
+        assertThat(table().declarations()).extracting(ScopeTable.Declaration::name)
+                .containsExactly("name", "p", "c", "b");
+    }
+
+    @Test
+    void depthCountsNestedBlocks() {
+        parse(TEXT);
+        ScopeTable table = table();
+
+        assertThat(table.depthAt(offset("b", 1))).isEqualTo(3);
+        assertThat(table.depthAt(offset("a", 1))).isEqualTo(2);
+        assertThat(table.depthAt(offset("p", 0))).isEqualTo(1);
+    }
+}
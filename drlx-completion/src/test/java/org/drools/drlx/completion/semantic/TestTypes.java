@@ -0,0 +1,24 @@
+package org.drools.drlx.completion.semantic;
+
+import java.util.List;
+
+import com.github.javaparser.resolution.model.typesystem.ReferenceTypeImpl;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import com.github.javaparser.resolution.types.ResolvedType;
+
+/**
+ * Types solved by the type solver of a {@link WorkspaceSemanticModel}.
+ */
+class TestTypes {
+
+    private TestTypes() {
+    }
+
+    static ResolvedReferenceType referenceType(WorkspaceSemanticModel model, String fqcn, ResolvedType... typeArguments) {
+        return new ReferenceTypeImpl(model.typeSolver().solveType(fqcn), List.of(typeArguments));
+    }
+
+    static SemanticType value(WorkspaceSemanticModel model, String fqcn) {
+        return SemanticType.value(referenceType(model, fqcn));
+    }
+}
@@ -3,8 +3,17 @@ package org.drools.drlx.completion.semantic;
 import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
 import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.drools.drlx.completion.document.DocumentSummary;
+import org.drools.drlx.parser.DrlxLexer;
+import org.drools.drlx.parser.DrlxParser;
 import org.junit.jupiter.api.Test;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.drlx.completion.semantic.TestTypes.referenceType;
+import static org.drools.drlx.completion.semantic.TestTypes.value;
 
 class WorkspaceSemanticModelTest {
 
@@ -36,4 +45,51 @@ class WorkspaceSemanticModelTest {
 
         assertThat(solverAfter).isNotSameAs(solverBefore);
     }
+
+    @Test
+    void modelsAreSharedUntilRebuild() {
+        WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+        BeanModel person = model.beanModel(value(model, "org.drools.drlx.domain.Person"));
+        MemberTable string = model.memberTable(referenceType(model, "java.lang.String"));
+
+        assertThat(model.beanModel(value(model, "org.drools.drlx.domain.Person"))).isSameAs(person);
+        assertThat(model.memberTable(referenceType(model, "java.lang.String"))).isSameAs(string);
+
+        model.rebuild(new CurrentClassloaderProvider());
+
+        assertThat(model.beanModel(value(model, "org.drools.drlx.domain.Person"))).isNotSameAs(person);
+        assertThat(model.memberTable(referenceType(model, "java.lang.String"))).isNotSameAs(string);
+    }
+
+    @Test
+    void memberTypesAreKeptPerParameterizationUntilRebuild() {
+        WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+        ResolvedReferenceType addresses = referenceType(model, "java.util.List",
+                referenceType(model, "org.drools.drlx.domain.Address"));
+        MemberTypes types = model.memberTypes(addresses);
+
+        assertThat(model.memberTypes(addresses)).isSameAs(types);
+        assertThat(model.memberTypes(referenceType(model, "java.util.List", referenceType(model, "java.lang.String"))))
+                .isNotSameAs(types);
+
+        model.rebuild(new CurrentClassloaderProvider());
+
+        assertThat(model.memberTypes(addresses)).isNotSameAs(types);
+    }
+
+    @Test
+    void rebuildDropsScopeTables() {
+        WorkspaceSemanticModel model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
+        DrlxParser parser = new DrlxParser(new CommonTokenStream(new DrlxLexer(new ANTLRInputStream(
+                "unit MyUnit;\nrule R1 { do { String a = \"a\"; } }\n"))));
+        ParseTree tree = parser.drlxStart();
+        DocumentSummary summary = DocumentSummary.of(tree);
+        ScopeTable table = model.scopeTable(summary, parser.getTokenStream(), summary.rules().get(0));
+
+        assertThat(model.scopeTable(summary, parser.getTokenStream(), summary.rules().get(0))).isSameAs(table);
+
+        model.rebuild(new CurrentClassloaderProvider());
+
+        assertThat(model.scopeTable(summary, parser.getTokenStream(), summary.rules().get(0))).isNotSameAs(table);
+    }
 }
@@ -0,0 +1,154 @@
+package org.drools.drlx.lsp.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.drools.drlx.completion.document.DfaMemoryManager;
+import org.drools.drlx.completion.document.DocumentSnapshot;
+import org.drools.drlx.completion.document.DrlxDocumentParser;
+import org.drools.drlx.completion.document.ParseStatistics;
+import org.drools.drlx.completion.document.Rope;
+import org.drools.drlx.completion.document.TextChange;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Open documents, each with the parsed snapshot of its latest version.
+ *
+ * <p>Every {@code open}/{@code change} starts parsing the new text in the
+ * background right away, so by the time completion or diagnostics ask for the
+ * snapshot it is usually ready. A reader asking while the parse is still running
+ * waits for that parse instead of starting another one.
+ *
+ * <p>Texts are kept as {@link Rope}s, so applying an edit and keeping the previous
+ * version around for a parse still reading it are both cheap.
+ *
+ * <p>Ranged changes (incremental sync) are turned into {@link TextChange}s and
+ * applied to the previous snapshot, so only the damaged tokens are relexed. A
+ * full-text change, or a previous parse that failed, falls back to a full parse.
+ */
+public class DocumentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentStore.class);
+
+    private record Entry(int version, Rope text, CompletableFuture<DocumentSnapshot> snapshot) {
+    }
+
+    private final Map<String, Entry> documents = new ConcurrentHashMap<>();
+    private final DrlxDocumentParser parser;
+    private final Executor executor;
+
+    public DocumentStore(DrlxDocumentParser parser) {
+        this(parser, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor runs the parses, off the thread delivering the notifications
+     */
+    public DocumentStore(DrlxDocumentParser parser, Executor executor) {
+        this.parser = parser;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<DocumentSnapshot> open(String uri, int version, String text) {
+        return update(uri, version, Rope.of(text));
+    }
+
+    public CompletableFuture<DocumentSnapshot> change(String uri, int version, String text) {
+        return update(uri, version, Rope.of(text));
+    }
+
+    /**
+     * Applies the content changes of a {@code didChange} notification, in order.
+     * Returns a future completing with {@code null} if the document is not open and
+     * the changes do not carry the full text.
+     */
+    public CompletableFuture<DocumentSnapshot> change(String uri, int version, List<TextDocumentContentChangeEvent> events) {
+        Entry previous = documents.get(uri);
+        Rope text = previous != null ? previous.text() : null;
+        List<TextChange> changes = new ArrayList<>(events.size());
+        boolean incremental = previous != null;
+        for (TextDocumentContentChangeEvent event : events) {
+            if (event.getRange() == null) {
+                text = Rope.of(event.getText());
+                changes.clear();
+                incremental = false;
+                continue;
+            }
+            if (text == null) {
+                logger.warn("Ignoring ranged change for a document that is not open: {}", uri);
+                return CompletableFuture.completedFuture(null);
+            }
+            Position start = event.getRange().getStart();
+            Position end = event.getRange().getEnd();
+            TextChange change = new TextChange(
+                    text.offsetAt(start.getLine(), start.getCharacter()),
+                    text.offsetAt(end.getLine(), end.getCharacter()),
+                    event.getText());
+            text = change.apply(text);
+            changes.add(change);
+        }
+
+        if (!incremental) {
+            return update(uri, version, text);
+        }
+        Rope newText = text;
+        CompletableFuture<DocumentSnapshot> snapshot = previous.snapshot().handleAsync((prev, error) -> {
+            if (prev == null) {
+                return parser.parse(uri, version, newText);
+            }
+            return parser.update(prev, version, changes);
+        }, executor);
+        documents.put(uri, new Entry(version, newText, snapshot));
+        return snapshot;
+    }
+
+    private CompletableFuture<DocumentSnapshot> update(String uri, int version, Rope text) {
+        CompletableFuture<DocumentSnapshot> snapshot = CompletableFuture.supplyAsync(() -> parser.parse(uri, version, text), executor);
+        documents.put(uri, new Entry(version, text, snapshot));
+        return snapshot;
+    }
+
+    public void close(String uri) {
+        documents.remove(uri);
+        logger.debug("Closed {}: {}, {}", uri, parser.statistics(uri), DfaMemoryManager.shared().metrics());
+        parser.forget(uri);
+    }
+
+    public ParseStatistics statistics(String uri) {
+        return parser.statistics(uri);
+    }
+
+    public Rope text(String uri) {
+        Entry entry = documents.get(uri);
+        return entry != null ? entry.text() : null;
+    }
+
+    /**
+     * Returns the snapshot of the latest known version of the document, waiting for
+     * its background parse if needed, or {@code null} if the document is not open.
+     */
+    public DocumentSnapshot snapshot(String uri) {
+        Entry entry = documents.get(uri);
+        if (entry == null) {
+            logger.debug("No open document for {}", uri);
+            return null;
+        }
+        return entry.snapshot().join();
+    }
+
+    /**
+     * Whether {@code snapshot} is still the latest version of its document.
+     */
+    public boolean isCurrent(DocumentSnapshot snapshot) {
+        Entry entry = documents.get(snapshot.uri());
+        return entry != null && entry.version() == snapshot.version();
+    }
+}
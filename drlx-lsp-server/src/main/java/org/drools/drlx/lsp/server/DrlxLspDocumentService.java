@@ -1,13 +1,25 @@
 package org.drools.drlx.lsp.server;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.drools.drlx.completion.DrlxCompletionHelper;
+import org.drools.drlx.completion.document.DfaWarmupCache;
+import org.drools.drlx.completion.document.DocumentSnapshot;
+import org.drools.drlx.completion.document.DrlxDocumentParser;
+import org.drools.drlx.completion.document.ParseStrategy;
+import org.drools.drlx.completion.document.PositionIndex;
+import org.drools.drlx.completion.document.SyntaxError;
 import org.drools.drlx.completion.semantic.MemberCompletionProvider;
 import org.drools.drlx.completion.semantic.SentinelExpressionTypeResolver;
 import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
@@ -17,6 +29,7 @@ import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.CompletionParams;
 import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
@@ -25,6 +38,7 @@ import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.services.TextDocumentService;
 
@@ -34,17 +48,53 @@ public class DrlxLspDocumentService implements TextDocumentService {
 
     private static final Logger logger = LoggerFactory.getLogger(DrlxLspDocumentService.class);
 
-    private final Map<String, String> sourcesMap = new ConcurrentHashMap<>();
+    /**
+     * How long diagnostics wait after a {@code didChange} for the next one, so a burst
+     * of keystrokes publishes once, for its last version.
+     */
+    private static final long DIAGNOSTICS_DELAY_MS = Long.getLong("drlx.diagnostics.delay", 300);
+
+    private static final ScheduledExecutorService DIAGNOSTICS_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "drlx-diagnostics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DocumentStore documents;
+    private final ScheduledExecutorService diagnosticsScheduler;
+    private final long diagnosticsDelayMs;
+    private final Map<String, ScheduledFuture<?>> pendingDiagnostics = new ConcurrentHashMap<>();
 
     private final DrlxLspServer server;
     private final DrlxCompletionHelper completionHelper;
+    private final DfaWarmupCache dfaCache;
 
     public DrlxLspDocumentService(DrlxLspServer server, WorkspaceSemanticModel model) {
+        this(server, model, null);
+    }
+
+    public DrlxLspDocumentService(DrlxLspServer server, WorkspaceSemanticModel model, DfaWarmupCache dfaCache) {
+        this(server, model, dfaCache, ForkJoinPool.commonPool(), DIAGNOSTICS_SCHEDULER, DIAGNOSTICS_DELAY_MS);
+    }
+
+    /**
+     * @param parseExecutor        runs the parses of new document versions
+     * @param diagnosticsScheduler publishes the diagnostics of a version once
+     *                             {@code diagnosticsDelayMs} went by without a newer one
+     */
+    DrlxLspDocumentService(DrlxLspServer server, WorkspaceSemanticModel model, DfaWarmupCache dfaCache,
+                           Executor parseExecutor, ScheduledExecutorService diagnosticsScheduler, long diagnosticsDelayMs) {
+        this.documents = new DocumentStore(new DrlxDocumentParser(
+                ParseStrategy.valueOf(System.getProperty("drlx.parse.strategy", ParseStrategy.TWO_STAGE.name()))),
+                parseExecutor);
+        this.diagnosticsScheduler = diagnosticsScheduler;
+        this.diagnosticsDelayMs = diagnosticsDelayMs;
         this.server = server;
+        this.dfaCache = dfaCache;
         this.completionHelper = new DrlxCompletionHelper(
                 model,
                 new SentinelExpressionTypeResolver(),
-                new MemberCompletionProvider());
+                new MemberCompletionProvider(model));
     }
 
     @Override
@@ -54,32 +104,70 @@ public class DrlxLspDocumentService implements TextDocumentService {
         logger.info("Document opened: {}", uri);
         logger.debug("Document content length: {}", text.length());
 
-        sourcesMap.put(uri, text);
-        CompletableFuture.runAsync(() ->
-                                           server.getClient().publishDiagnostics(
-                                                   new PublishDiagnosticsParams(uri, validate())
-                                           )
-        );
+        documents.open(uri, params.getTextDocument().getVersion(), text)
+                .thenAccept(snapshot -> parsed(snapshot, 0));
+    }
+
+    private void parsed(DocumentSnapshot snapshot, long diagnosticsDelayMs) {
+        if (snapshot == null || !documents.isCurrent(snapshot)) {
+            return;
+        }
+        logger.debug("Parsed version {} of {}", snapshot.version(), snapshot.uri());
+        scheduleDiagnostics(snapshot, diagnosticsDelayMs);
+    }
+
+    /**
+     * Publishes the diagnostics of {@code snapshot} after {@code delayMs}, replacing
+     * any publication still pending for the document. Nothing is published if a
+     * newer version arrived in the meantime; its own parse schedules it.
+     */
+    private void scheduleDiagnostics(DocumentSnapshot snapshot, long delayMs) {
+        ScheduledFuture<?> scheduled = diagnosticsScheduler.schedule(() -> {
+            if (documents.isCurrent(snapshot)) {
+                attempt(() -> {
+                    publishDiagnostics(snapshot.uri(), validate(snapshot), snapshot.version());
+                    return null;
+                });
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = pendingDiagnostics.put(snapshot.uri(), scheduled);
+        if (previous != null) {
+            previous.cancel(false);
+        }
     }
 
-    private List<Diagnostic> validate() {
-        // TODO: Implement Drlx validation
-        return Collections.emptyList();
+    private void publishDiagnostics(String uri, List<Diagnostic> diagnostics, Integer version) {
+        server.getClient().publishDiagnostics(new PublishDiagnosticsParams(uri, diagnostics, version));
+    }
+
+    /**
+     * The syntax errors the lexer and parser reported for {@code snapshot}.
+     */
+    List<Diagnostic> validate(DocumentSnapshot snapshot) {
+        PositionIndex positions = snapshot.positions();
+        List<Diagnostic> diagnostics = new ArrayList<>(snapshot.syntaxErrors().size());
+        for (SyntaxError error : snapshot.syntaxErrors()) {
+            Range range;
+            if (error.startIndex() >= 0) {
+                range = positions.range(error.startIndex(), error.stopIndex() + 1);
+            } else {
+                // Not attached to a token: ANTLR's line is 1-based
+                Position position = new Position(Math.max(0, error.line() - 1), error.charPositionInLine());
+                range = new Range(position, position);
+            }
+            diagnostics.add(new Diagnostic(range, error.message(), DiagnosticSeverity.Error, "drlx"));
+        }
+        return diagnostics;
     }
 
     @Override
     public void didChange(DidChangeTextDocumentParams params) {
         String uri = params.getTextDocument().getUri();
-        String newText = params.getContentChanges().get(0).getText();
         logger.debug("Document changed: {}", uri);
-        logger.trace("New content length: {}", newText.length());
-
-        sourcesMap.put(uri, newText);
-        CompletableFuture.runAsync(() ->
-                                           server.getClient().publishDiagnostics(
-                                                   new PublishDiagnosticsParams(uri, validate())
-                                           )
-        );
+        logger.trace("Content changes: {}", params.getContentChanges().size());
+
+        documents.change(uri, params.getTextDocument().getVersion(), params.getContentChanges())
+                .thenAccept(snapshot -> parsed(snapshot, diagnosticsDelayMs));
     }
 
     @Override
@@ -99,13 +187,18 @@ public class DrlxLspDocumentService implements TextDocumentService {
 
     public List<CompletionItem> getCompletionItems(CompletionParams completionParams) {
         String uri = completionParams.getTextDocument().getUri();
-        String text = sourcesMap.get(uri);
         Position caretPosition = completionParams.getPosition();
 
         logger.info("Completion requested for {} at position {}:{}", uri, caretPosition.getLine(), caretPosition.getCharacter());
-        logger.debug("Document text length: {}", text != null ? text.length() : 0);
 
-        List<CompletionItem> completionItems = completionHelper.getCompletionItems(text, caretPosition);
+        DocumentSnapshot snapshot = documents.snapshot(uri);
+        if (snapshot == null) {
+            logger.warn("Completion requested for a document that is not open: {}", uri);
+            return List.of();
+        }
+        logger.debug("Document version: {}, text length: {}", snapshot.version(), snapshot.content().length());
+
+        List<CompletionItem> completionItems = completionHelper.getCompletionItems(snapshot, caretPosition);
 
         for (String diag : completionHelper.lastDiagnostics()) {
             server.getClient().showMessage(new MessageParams(MessageType.Warning, diag));
@@ -126,13 +219,25 @@ public class DrlxLspDocumentService implements TextDocumentService {
     public void didClose(DidCloseTextDocumentParams params) {
         String uri = params.getTextDocument().getUri();
         logger.info("Document closed: {}", uri);
-        sourcesMap.remove(uri);
+        documents.close(uri);
+        ScheduledFuture<?> pending = pendingDiagnostics.remove(uri);
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        // Clears the document's diagnostics in the client
+        publishDiagnostics(uri, List.of(), null);
     }
 
     @Override
     public void didSave(DidSaveTextDocumentParams params) {
         String uri = params.getTextDocument().getUri();
         logger.info("Document saved: {}", uri);
-        // No-op for now
+        // Once per save rather than per version, as recording walks every token
+        if (dfaCache != null) {
+            DocumentSnapshot snapshot = documents.snapshot(uri);
+            if (snapshot != null) {
+                dfaCache.record(snapshot);
+            }
+        }
     }
 }
\ No newline at end of file
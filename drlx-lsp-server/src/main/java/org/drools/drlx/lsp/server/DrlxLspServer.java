@@ -3,9 +3,12 @@ package org.drools.drlx.lsp.server;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
+import org.drools.drlx.completion.document.DfaMemoryManager;
+import org.drools.drlx.completion.document.DfaWarmupCache;
 import org.drools.drlx.completion.semantic.CurrentClassloaderProvider;
 import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
 import org.slf4j.Logger;
@@ -29,12 +32,22 @@ public class DrlxLspServer implements LanguageServer, LanguageClientAware {
     private final DrlxLspDocumentService textService;
     private final WorkspaceService workspaceService;
     private final WorkspaceSemanticModel model;
+    private final DfaWarmupCache dfaCache;
 
     private LanguageClient client;
 
     public DrlxLspServer() {
+        this(null);
+    }
+
+    /**
+     * @param dfaCache records parsed documents to warm up the parser after a restart
+     *                 and is saved on shutdown; {@code null} to disable
+     */
+    public DrlxLspServer(DfaWarmupCache dfaCache) {
+        this.dfaCache = dfaCache;
         model = new WorkspaceSemanticModel(new CurrentClassloaderProvider());
-        textService = new DrlxLspDocumentService(this, model);
+        textService = new DrlxLspDocumentService(this, model, dfaCache);
         workspaceService = new DrlxLspWorkspaceService();
     }
 
@@ -83,14 +96,19 @@ public class DrlxLspServer implements LanguageServer, LanguageClientAware {
         }
 
         InitializeResult initializeResult = new InitializeResult(new ServerCapabilities());
-        initializeResult.getCapabilities().setTextDocumentSync(TextDocumentSyncKind.Full);
-        CompletionOptions completionOptions = new CompletionOptions();
+        initializeResult.getCapabilities().setTextDocumentSync(TextDocumentSyncKind.Incremental);
+        // Member access; also covers '!.', which ends in '.'
+        CompletionOptions completionOptions = new CompletionOptions(false, List.of("."));
         initializeResult.getCapabilities().setCompletionProvider(completionOptions);
         return CompletableFuture.supplyAsync(() -> initializeResult);
     }
 
     @Override
     public CompletableFuture<Object> shutdown() {
+        logger.info("shutdown: {}", DfaMemoryManager.shared().metrics());
+        if (dfaCache != null) {
+            dfaCache.save();
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -43,7 +43,7 @@ public class DrlxLspTCPLauncher {
      */
     private static void startServer(InputStream in, OutputStream out) throws ExecutionException, InterruptedException {
         // Initialize the server
-        DrlxLspServer server = new DrlxLspServer();
+        DrlxLspServer server = new DrlxLspServer(Main.preloadDfaCache());
         // Create JSON RPC launcher for DrlxLspServer instance.
         Launcher<LanguageClient> launcher = LSPLauncher.createServerLauncher(server, in, out);
 
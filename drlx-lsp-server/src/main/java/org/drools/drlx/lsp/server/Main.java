@@ -2,24 +2,45 @@ package org.drools.drlx.lsp.server;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import org.drools.drlx.completion.document.DfaWarmupCache;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.launch.LSPLauncher;
 import org.eclipse.lsp4j.services.LanguageClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class Main {
 
+    private static final Logger logger = LoggerFactory.getLogger(Main.class);
+
     public static void main(String[] args) throws InterruptedException, ExecutionException {
         startServer(System.in, System.out);
     }
 
     public static void startServer(InputStream in, OutputStream out) throws InterruptedException, ExecutionException {
-        DrlxLspServer server = new DrlxLspServer();
+        DrlxLspServer server = new DrlxLspServer(preloadDfaCache());
         Launcher<LanguageClient> launcher = LSPLauncher.createServerLauncher(server, in, out);
         Future<?> startListening = launcher.startListening();
         server.connect(launcher.getRemoteProxy());
         startListening.get();
     }
+
+    /**
+     * Replays the persisted DFA warm-up input in the background, so the first
+     * completions after a restart are as fast as in a long-running session.
+     */
+    static DfaWarmupCache preloadDfaCache() {
+        DfaWarmupCache cache = DfaWarmupCache.fromSystemProperties();
+        if (cache != null) {
+            CompletableFuture.runAsync(cache::preload).exceptionally(e -> {
+                logger.warn("Cannot preload the DFA warm-up cache", e);
+                return null;
+            });
+        }
+        return cache;
+    }
 }
\ No newline at end of file
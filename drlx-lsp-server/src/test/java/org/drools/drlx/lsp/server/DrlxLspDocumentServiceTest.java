@@ -1,16 +1,31 @@
 package org.drools.drlx.lsp.server;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
+import org.drools.drlx.completion.semantic.CurrentClassloaderProvider;
+import org.drools.drlx.completion.semantic.WorkspaceSemanticModel;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.drools.drlx.completion.DrlxCompletionHelper.completionItemStrings;
+import static org.drools.drlx.lsp.server.TestHelperMethods.client;
 import static org.drools.drlx.lsp.server.TestHelperMethods.getDrlxLspDocumentService;
+import static org.drools.drlx.lsp.server.TestHelperMethods.getDrlxLspServerForDocument;
+import static org.drools.drlx.lsp.server.TestHelperMethods.open;
 
 class DrlxLspDocumentServiceTest {
 
@@ -146,4 +161,164 @@ class DrlxLspDocumentServiceTest {
         List<CompletionItem> result = drlxLspDocumentService.getCompletionItems(completionParams);
         assertThat(completionItemStrings(result)).doesNotContain("IDENTIFIER");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCompletionItems_usesLatestVersionAfterChange() {
+        DrlxLspDocumentService drlxLspDocumentService = getDrlxLspDocumentService("");
+
+        String drlx = """
+                import org.drools.drlx.domain.Person;
+                import org.drools.drlx.domain.MyUnit;
+
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons,
+                    do { p.
+                """;
+        drlxLspDocumentService.didChange(new DidChangeTextDocumentParams(
+                new VersionedTextDocumentIdentifier("myDocument", 2),
+                List.of(new TextDocumentContentChangeEvent(drlx))));
+
+        CompletionParams completionParams = new CompletionParams();
+        completionParams.setTextDocument(new TextDocumentIdentifier("myDocument"));
+        completionParams.setPosition(new Position(7, 11)); // After 'p.'
+
+        List<CompletionItem> result = drlxLspDocumentService.getCompletionItems(completionParams);
+        assertThat(completionItemStrings(result)).contains("age", "name", "address");
+
+        // Unchanged document: the second request reads the same parsed snapshot
+        result = drlxLspDocumentService.getCompletionItems(completionParams);
+        assertThat(completionItemStrings(result)).contains("age", "name", "address");
+    }
+
+    @Test
+    void getCompletionItems_afterIncrementalChange() {
+        String drlx = """
+                import org.drools.drlx.domain.Person;
+                import org.drools.drlx.domain.MyUnit;
+
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons,
+                    do { p
+                """;
+        DrlxLspDocumentService drlxLspDocumentService = getDrlxLspDocumentService(drlx);
+
+        // Type '.' after 'p', as an incremental-sync client sends it
+        drlxLspDocumentService.didChange(new DidChangeTextDocumentParams(
+                new VersionedTextDocumentIdentifier("myDocument", 2),
+                List.of(new TextDocumentContentChangeEvent(new Range(new Position(7, 10), new Position(7, 10)), "."))));
+
+        CompletionParams completionParams = new CompletionParams();
+        completionParams.setTextDocument(new TextDocumentIdentifier("myDocument"));
+        completionParams.setPosition(new Position(7, 11)); // After 'p.'
+
+        List<CompletionItem> result = drlxLspDocumentService.getCompletionItems(completionParams);
+        assertThat(completionItemStrings(result)).contains("age", "name", "address");
+    }
+
+    @Test
+    void getCompletionItems_unknownDocument() {
+        DrlxLspDocumentService drlxLspDocumentService = getDrlxLspDocumentService("");
+
+        CompletionParams completionParams = new CompletionParams();
+        completionParams.setTextDocument(new TextDocumentIdentifier("notOpened"));
+        completionParams.setPosition(new Position(0, 0));
+
+        assertThat(drlxLspDocumentService.getCompletionItems(completionParams)).isEmpty();
+    }
+
+    @Test
+    void diagnostics_validDocument() throws InterruptedException {
+        List<PublishDiagnosticsParams> published = Collections.synchronizedList(new ArrayList<>());
+        getDrlxLspServerForDocument("""
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons[ age > 18 ],
+                    do { System.out.println(p); }
+                }
+                """, published);
+
+        PublishDiagnosticsParams params = awaitDiagnostics(published, p -> true);
+        assertThat(params.getUri()).isEqualTo("myDocument");
+        assertThat(params.getDiagnostics()).isEmpty();
+    }
+
+    @Test
+    void diagnostics_syntaxErrorOnOpen() throws InterruptedException {
+        List<PublishDiagnosticsParams> published = Collections.synchronizedList(new ArrayList<>());
+        getDrlxLspServerForDocument("""
+                unit MyUnit;
+
+                rule R1 {
+                    var p : /persons[ age > ],
+                }
+                """, published);
+
+        PublishDiagnosticsParams params = awaitDiagnostics(published, p -> !p.getDiagnostics().isEmpty());
+        assertThat(params.getDiagnostics()).allSatisfy(d -> {
+            assertThat(d.getSeverity()).isEqualTo(DiagnosticSeverity.Error);
+            assertThat(d.getSource()).isEqualTo("drlx");
+        });
+        // Around the missing operand
+        assertThat(params.getDiagnostics().get(0).getRange().getStart().getLine()).isEqualTo(3);
+    }
+
+    @Test
+    void diagnostics_publishedForLastChangeOnly() {
+        List<PublishDiagnosticsParams> published = Collections.synchronizedList(new ArrayList<>());
+        DrlxLspServer ls = new DrlxLspServer();
+        ls.connect(client(published));
+        ManualScheduler scheduler = new ManualScheduler();
+        // Parses run on the calling thread; diagnostics wait for the scheduler to be run
+        DrlxLspDocumentService service = new DrlxLspDocumentService(ls,
+                new WorkspaceSemanticModel(new CurrentClassloaderProvider()), null, Runnable::run, scheduler, 300);
+        open(service, "unit MyUnit;\n");
+        scheduler.runPending();
+        assertThat(published).hasSize(1);
+        published.clear();
+
+        // Type 'rule R1 {}' one keystroke at a time
+        String typed = "rule R1 {}";
+        for (int i = 0; i < typed.length(); i++) {
+            service.didChange(new DidChangeTextDocumentParams(
+                    new VersionedTextDocumentIdentifier("myDocument", i + 2),
+                    List.of(new TextDocumentContentChangeEvent(new Range(new Position(1, i), new Position(1, i)),
+                            String.valueOf(typed.charAt(i))))));
+        }
+        assertThat(published).isEmpty();
+        scheduler.runPending();
+
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getVersion()).isEqualTo(typed.length() + 1);
+    }
+
+    @Test
+    void diagnostics_clearedOnClose() throws InterruptedException {
+        List<PublishDiagnosticsParams> published = Collections.synchronizedList(new ArrayList<>());
+        DrlxLspServer ls = getDrlxLspServerForDocument("unit MyUnit;\nrule {\n", published);
+        awaitDiagnostics(published, p -> !p.getDiagnostics().isEmpty());
+
+        ls.getTextDocumentService().didClose(new DidCloseTextDocumentParams(new TextDocumentIdentifier("myDocument")));
+
+        assertThat(published.get(published.size() - 1).getDiagnostics()).isEmpty();
+    }
+
+    private static PublishDiagnosticsParams awaitDiagnostics(List<PublishDiagnosticsParams> published,
+                                                             Predicate<PublishDiagnosticsParams> condition) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            synchronized (published) {
+                for (PublishDiagnosticsParams params : published) {
+                    if (condition.test(params)) {
+                        return params;
+                    }
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No matching diagnostics published: " + published);
+    }
+}
@@ -1,10 +1,10 @@
 package org.drools.drlx.lsp.server;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
-import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.MessageActionItem;
 import org.eclipse.lsp4j.MessageParams;
@@ -24,9 +24,34 @@ public class TestHelperMethods {
     }
 
     public static DrlxLspServer getDrlxLspServerForDocument(String drlx) {
+        return getDrlxLspServerForDocument(drlx, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    /**
+     * @param published receives every diagnostics notification sent to the client
+     */
+    public static DrlxLspServer getDrlxLspServerForDocument(String drlx, List<PublishDiagnosticsParams> published) {
         DrlxLspServer ls = new DrlxLspServer();
-        List<Diagnostic> diagnostics = new ArrayList<>();
-        ls.connect(new LanguageClient() {
+        ls.connect(client(published));
+        open(ls.getTextDocumentService(), drlx);
+        return ls;
+    }
+
+    /**
+     * Opens {@code drlx} as {@code myDocument}.
+     */
+    public static void open(DrlxLspDocumentService service, String drlx) {
+        TextDocumentItem doc = new TextDocumentItem();
+        doc.setUri("myDocument");
+        doc.setText(drlx);
+        service.didOpen(new DidOpenTextDocumentParams(doc));
+    }
+
+    /**
+     * A client ignoring everything but diagnostics, which go to {@code published}.
+     */
+    public static LanguageClient client(List<PublishDiagnosticsParams> published) {
+        return new LanguageClient() {
             @Override
             public void telemetryEvent(Object object) {
             }
@@ -42,19 +67,12 @@ public class TestHelperMethods {
 
             @Override
             public void publishDiagnostics(PublishDiagnosticsParams d) {
-                diagnostics.clear();
-                diagnostics.addAll(d.getDiagnostics());
+                published.add(d);
             }
 
             @Override
             public void logMessage(MessageParams message) {
             }
-        });
-
-        TextDocumentItem doc = new TextDocumentItem();
-        doc.setUri("myDocument");
-        doc.setText(drlx);
-        ls.getTextDocumentService().didOpen(new DidOpenTextDocumentParams(doc));
-        return ls;
+        };
     }
 }
\ No newline at end of file